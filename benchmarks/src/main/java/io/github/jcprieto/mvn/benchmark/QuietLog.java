@@ -0,0 +1,23 @@
+package io.github.jcprieto.mvn.benchmark;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+class QuietLog extends SystemStreamLog {
+
+    @Override
+    public boolean isInfoEnabled() {
+        return false;
+    }
+
+    @Override
+    public void info(CharSequence content) {
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+    }
+
+    @Override
+    public void info(Throwable error) {
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.jcprieto.mvn.benchmark;
+
+import io.github.jcprieto.mvn.S3Uploader;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UploadBenchmark {
+
+    @Param({"1", "16", "128", "512", "2048"})
+    public int sizeMb;
+
+    @Param({"false", "true"})
+    public boolean showProgress;
+
+    private Path workDir;
+    private LocalS3Server server;
+    private S3Client s3Client;
+    private S3Uploader uploader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("s3-upload-benchmark");
+        writeArtifact(workDir.resolve("artifact.war").toFile(), (long) sizeMb * 1024 * 1024);
+        server = new LocalS3Server();
+        s3Client = S3Client.builder()
+                .endpointOverride(server.endpoint())
+                .forcePathStyle(true)
+                .region(Region.EU_WEST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("accessKey", "secretKey")))
+                .build();
+        uploader = new S3Uploader();
+        uploader.setLog(new QuietLog());
+        uploader.setProject(new MavenProject());
+        uploader.setOutputDirectory(workDir.toString());
+        uploader.setWarName("artifact");
+        uploader.setExtension("war");
+        uploader.setBucket("benchmark");
+        uploader.setRegion(Region.EU_WEST_1.id());
+        uploader.setPath("releases/");
+        uploader.setAccessKey("accessKey");
+        uploader.setSecretKey("secretKey");
+        uploader.setShowProgress(showProgress);
+        uploader.setS3Client(s3Client);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        s3Client.close();
+        server.close();
+        Files.deleteIfExists(workDir.resolve("artifact.war"));
+        Files.deleteIfExists(workDir);
+    }
+
+    @Benchmark
+    public void upload() throws MojoExecutionException, MojoFailureException {
+        uploader.execute();
+    }
+
+    private static void writeArtifact(File file, long size) throws IOException {
+        byte[] block = new byte[1024 * 1024];
+        new Random(42).nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            for (long written = 0; written < size; written += block.length) {
+                out.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+
+abstract class AbstractS3DownloadMojo extends AbstractS3Mojo {
+
+    @Parameter(property = "aws.s3.artifact", required = true)
+    protected String artifact;
+
+    @Parameter(property = "aws.s3.downloadDirectory", defaultValue = "${project.build.directory}")
+    protected File downloadDirectory;
+
+    @Parameter(property = "aws.s3.downloadThreads", defaultValue = "8")
+    protected int downloadThreads = 8;
+
+    protected void validateDownloadConfiguration() throws MojoExecutionException {
+        if (isBlank(bucket)) {
+            throw new MojoExecutionException("Bucket is required (aws.s3.bucket)");
+        }
+        if (isBlank(region)) {
+            throw new MojoExecutionException("Region is required (aws.s3.region)");
+        }
+        if (isBlank(path)) {
+            throw new MojoExecutionException("Path is required (aws.s3.path)");
+        }
+        if (isBlank(artifact)) {
+            throw new MojoExecutionException("Artifact is required (aws.s3.artifact)");
+        }
+        if (downloadDirectory == null) {
+            throw new MojoExecutionException("Download directory is required (aws.s3.downloadDirectory)");
+        }
+        if (downloadThreads < 1) {
+            throw new MojoExecutionException("Download threads must be at least 1 (aws.s3.downloadThreads)");
+        }
+        validateClientConfiguration();
+    }
+
+    protected String artifactKey() {
+        return buildS3Key(normalizePath(path), artifact.trim());
+    }
+
+    protected File targetFile() {
+        return new File(downloadDirectory, new File(artifact.trim()).getName());
+    }
+
+    public void setArtifact(String artifact) {
+        this.artifact = artifact;
+    }
+
+    public void setDownloadDirectory(File downloadDirectory) {
+        this.downloadDirectory = downloadDirectory;
+    }
+
+    public void setDownloadThreads(int downloadThreads) {
+        this.downloadThreads = downloadThreads;
+    }
+}
@@ -0,0 +1,370 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.Parameter;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+abstract class AbstractS3Mojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    protected MavenSession session;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true)
+    protected PluginDescriptor plugin;
+
+    @Parameter(property = "aws.s3.bucket")
+    protected String bucket;
+
+    @Parameter(property = "aws.s3.region")
+    protected String region;
+
+    @Parameter(property = "aws.s3.path")
+    protected String path;
+
+    @Parameter(property = "aws.s3.accesskey", required = true)
+    protected String accessKey;
+
+    @Parameter(property = "aws.s3.secretkey", required = true)
+    protected String secretKey;
+
+    @Parameter(property = "aws.s3.cannonicalIds")
+    protected String[] cannonicalIds = new String[0];
+
+    @Parameter(property = "aws.s3.disableSdkV1DeprecationAnnouncement", defaultValue = "false")
+    protected boolean disableSdkV1DeprecationAnnouncement;
+
+    @Parameter(property = "aws.s3.maxAttempts", defaultValue = "3")
+    protected int maxAttempts = 3;
+
+    @Parameter(property = "aws.s3.retryBaseDelayMillis", defaultValue = "200")
+    protected long retryBaseDelayMillis = 200;
+
+    @Parameter(property = "aws.s3.retryMaxDelayMillis", defaultValue = "20000")
+    protected long retryMaxDelayMillis = 20000;
+
+    @Parameter(property = "aws.s3.adaptiveRetry", defaultValue = "true")
+    protected boolean adaptiveRetry = true;
+
+    @Parameter(property = "aws.s3.endpoint")
+    protected String endpoint;
+
+    @Parameter(property = "aws.s3.pathStyleAccess", defaultValue = "false")
+    protected boolean pathStyleAccess;
+
+    @Parameter(property = "aws.s3.accelerate", defaultValue = "false")
+    protected boolean accelerate;
+
+    @Parameter(property = "aws.s3.dualStack", defaultValue = "false")
+    protected boolean dualStack;
+
+    @Parameter(property = "aws.s3.maxConcurrentUploads", defaultValue = "16")
+    protected int maxConcurrentUploads = UploadScheduler.DEFAULT_MAX_CONCURRENT;
+
+    @Parameter(property = "aws.s3.uploadIndex", defaultValue = "false")
+    protected boolean uploadIndex;
+
+    @Parameter(property = "aws.s3.uploadIndexDirectory", defaultValue = "${settings.localRepository}/.mvn-s3-upload")
+    protected File uploadIndexDirectory = new File(System.getProperty("user.home"), ".m2/repository/.mvn-s3-upload");
+
+    private S3Client s3Client;
+    private final Map<String, S3Client> clients = new HashMap<>();
+    protected S3ClientRegistry clientRegistry;
+    protected UploadRetryPolicy retryPolicy;
+
+    protected UploadRetryPolicy newRetryPolicy() {
+        return new UploadRetryPolicy(getLog(), maxAttempts, retryBaseDelayMillis, retryMaxDelayMillis, adaptiveRetry);
+    }
+
+    protected void validateClientConfiguration() throws MojoExecutionException {
+        if (maxAttempts < 1) {
+            throw new MojoExecutionException("Max attempts must be at least 1 (aws.s3.maxAttempts)");
+        }
+        if (maxConcurrentUploads < 1) {
+            throw new MojoExecutionException("Max concurrent uploads must be at least 1 (aws.s3.maxConcurrentUploads)");
+        }
+        if (!isBlank(endpoint)) {
+            URI uri;
+            try {
+                uri = new URI(endpoint.trim());
+            } catch (URISyntaxException e) {
+                throw new MojoExecutionException("Invalid endpoint: " + endpoint + " (aws.s3.endpoint)", e);
+            }
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                throw new MojoExecutionException("Endpoint must be an absolute http(s) URL: " + endpoint
+                        + " (aws.s3.endpoint)");
+            }
+            if (accelerate) {
+                throw new MojoExecutionException("Transfer acceleration cannot be combined with a custom endpoint"
+                        + " (aws.s3.accelerate, aws.s3.endpoint)");
+            }
+        }
+        if (accelerate && pathStyleAccess) {
+            throw new MojoExecutionException("Transfer acceleration requires virtual-hosted-style access"
+                    + " (aws.s3.accelerate, aws.s3.pathStyleAccess)");
+        }
+    }
+
+    protected UploadScheduler uploadScheduler() {
+        if (session == null) {
+            return new UploadScheduler(maxConcurrentUploads);
+        }
+        UploadScheduler scheduler = UploadScheduler.forSession(session, maxConcurrentUploads);
+        if (scheduler.maxConcurrent() != maxConcurrentUploads) {
+            getLog().warn("Upload concurrency is shared by the whole build, using the first configured limit of "
+                    + scheduler.maxConcurrent() + " requests (aws.s3.maxConcurrentUploads)");
+        }
+        return scheduler;
+    }
+
+    protected UploadIndex openUploadIndex() {
+        if (!uploadIndex) {
+            return null;
+        }
+        try {
+            UploadIndex index = UploadIndex.open(uploadIndexDirectory);
+            getLog().info("Using upload index " + index.file() + " (" + index.size() + " entries)");
+            return index;
+        } catch (IOException e) {
+            getLog().warn("Failed to read upload index in " + uploadIndexDirectory + ", comparing remotely: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    protected String uploadIndexKey(String indexBucket, String objectKey) {
+        return UploadIndex.key(trimToNull(endpoint), indexBucket, objectKey);
+    }
+
+    protected void flushUploadIndex(UploadIndex index) {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.flush();
+        } catch (IOException e) {
+            getLog().warn("Failed to write upload index " + index.file() + ": " + e.getMessage());
+        }
+    }
+
+    protected String formatRate(long bytes, long elapsedMillis) {
+        double megabytesPerSecond = elapsedMillis <= 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (elapsedMillis / 1000.0);
+        return String.format(Locale.ROOT, "%.2f MB/s", megabytesPerSecond);
+    }
+
+    protected void logRetrySummary() {
+        if (retryPolicy != null && retryPolicy.retries() > 0) {
+            getLog().info(retryPolicy.summary());
+        }
+    }
+
+    protected long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    protected boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    protected String normalizePath(String value) {
+        String normalized = value.trim().replace('\\', '/');
+        if (!normalized.endsWith("/")) {
+            normalized = normalized + "/";
+        }
+        return normalized;
+    }
+
+    protected String trimToNull(String value) {
+        return isBlank(value) ? null : value.trim();
+    }
+
+    protected String buildS3Key(String normalizedPath, String fileName) {
+        String base = normalizedPath == null ? "" : normalizedPath;
+        return base + fileName;
+    }
+
+    protected synchronized S3Client getS3Client(String clientRegion) {
+        if (s3Client != null) {
+            return s3Client;
+        }
+        S3Client client = clients.get(clientRegion);
+        if (client == null) {
+            client = clientRegistry != null
+                    ? clientRegistry.client(clientKey(clientRegion), () -> buildS3Client(clientRegion))
+                    : buildS3Client(clientRegion);
+            clients.put(clientRegion, client);
+        }
+        return client;
+    }
+
+    protected String clientKey(String clientRegion) {
+        return clientRegion + "|" + (isBlank(endpoint) ? "" : endpoint.trim()) + "|" + pathStyleAccess + "|"
+                + accelerate + "|" + dualStack + "|" + accessKey + "|" + Checksums.toHex(Checksums.newSha256()
+                .digest(String.valueOf(secretKey).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    protected synchronized void releaseS3Client() {
+        if (clientRegistry == null) {
+            for (S3Client client : clients.values()) {
+                client.close();
+            }
+        }
+        clients.clear();
+    }
+
+    protected String grantRead(String[] grantees) {
+        if (grantees == null || grantees.length == 0) {
+            return null;
+        }
+        List<String> canonicalIds = new ArrayList<>();
+        for (String cannonicalId : grantees) {
+            if (cannonicalId == null) {
+                continue;
+            }
+            String trimmed = cannonicalId.trim();
+            if (!trimmed.isEmpty()) {
+                canonicalIds.add(trimmed);
+            }
+        }
+        if (canonicalIds.isEmpty()) {
+            getLog().warn("Skipping ACL update: canonicalIds is empty after trimming");
+            return null;
+        }
+        return canonicalIds.stream()
+                .map(id -> "id=\"" + id + "\"")
+                .collect(Collectors.joining(","));
+    }
+
+    protected S3Client buildS3Client(String clientRegion) {
+        AwsBasicCredentials awsCreds = AwsBasicCredentials.builder()
+                .accessKeyId(accessKey)
+                .secretAccessKey(secretKey)
+                .build();
+        AwsCredentialsProvider awsCredentialsProvider = StaticCredentialsProvider.create(awsCreds);
+        S3ClientBuilder builder = S3Client.builder()
+                .credentialsProvider(awsCredentialsProvider)
+                .region(Region.of(clientRegion))
+                .forcePathStyle(pathStyleAccess)
+                .accelerate(accelerate)
+                .dualstackEnabled(dualStack)
+                .overrideConfiguration(o -> o.retryStrategy(AwsRetryStrategy.doNotRetry()));
+        if (!isBlank(endpoint)) {
+            getLog().info("Using S3 endpoint " + endpoint.trim());
+            builder.endpointOverride(URI.create(endpoint.trim()));
+        }
+        return builder.build();
+    }
+
+    protected void maybeDisableAwsSdkV1DeprecationAnnouncement() {
+        if (!disableSdkV1DeprecationAnnouncement) {
+            return;
+        }
+        if (!"true".equalsIgnoreCase(System.getProperty("aws.java.v1.disableDeprecationAnnouncement"))) {
+            System.setProperty("aws.java.v1.disableDeprecationAnnouncement", "true");
+        }
+    }
+
+    public void setSession(MavenSession session) {
+        this.session = session;
+    }
+
+    public void setPlugin(PluginDescriptor plugin) {
+        this.plugin = plugin;
+    }
+
+    public void setCannonicalIds(String[] cannonicalIds) {
+        this.cannonicalIds = cannonicalIds;
+    }
+
+    public void setAccessKey(String accessKey) {
+        this.accessKey = accessKey;
+    }
+
+    public void setSecretKey(String secretKey) {
+        this.secretKey = secretKey;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public void setDisableSdkV1DeprecationAnnouncement(boolean disableSdkV1DeprecationAnnouncement) {
+        this.disableSdkV1DeprecationAnnouncement = disableSdkV1DeprecationAnnouncement;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public void setRetryBaseDelayMillis(long retryBaseDelayMillis) {
+        this.retryBaseDelayMillis = retryBaseDelayMillis;
+    }
+
+    public void setRetryMaxDelayMillis(long retryMaxDelayMillis) {
+        this.retryMaxDelayMillis = retryMaxDelayMillis;
+    }
+
+    public void setAdaptiveRetry(boolean adaptiveRetry) {
+        this.adaptiveRetry = adaptiveRetry;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void setPathStyleAccess(boolean pathStyleAccess) {
+        this.pathStyleAccess = pathStyleAccess;
+    }
+
+    public void setAccelerate(boolean accelerate) {
+        this.accelerate = accelerate;
+    }
+
+    public void setDualStack(boolean dualStack) {
+        this.dualStack = dualStack;
+    }
+
+    public void setMaxConcurrentUploads(int maxConcurrentUploads) {
+        this.maxConcurrentUploads = maxConcurrentUploads;
+    }
+
+    public void setUploadIndex(boolean uploadIndex) {
+        this.uploadIndex = uploadIndex;
+    }
+
+    public void setUploadIndexDirectory(File uploadIndexDirectory) {
+        this.uploadIndexDirectory = uploadIndexDirectory;
+    }
+
+    public void setS3Client(S3Client s3Client) {
+        this.s3Client = s3Client;
+    }
+}
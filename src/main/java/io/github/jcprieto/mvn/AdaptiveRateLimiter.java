@@ -0,0 +1,75 @@
+package io.github.jcprieto.mvn;
+
+import java.util.concurrent.TimeUnit;
+
+class AdaptiveRateLimiter {
+
+    private static final double MIN_RATE = 0.5;
+    private static final double DECREASE_FACTOR = 0.7;
+    private static final double INCREASE_STEP = 0.25;
+
+    private boolean enabled;
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private long windowStartNanos = lastRefillNanos;
+    private int windowRequests;
+    private double measuredRate;
+
+    void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    synchronized void onThrottle() {
+        double current = enabled ? rate : Math.max(measuredRate, currentWindowRate());
+        rate = Math.max(MIN_RATE, (current <= 0 ? MIN_RATE / DECREASE_FACTOR : current) * DECREASE_FACTOR);
+        if (!enabled) {
+            enabled = true;
+            tokens = 0;
+            lastRefillNanos = System.nanoTime();
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        rate += INCREASE_STEP;
+        if (measuredRate > 0 && rate > 2 * measuredRate) {
+            enabled = false;
+        }
+    }
+
+    synchronized boolean isLimiting() {
+        return enabled;
+    }
+
+    synchronized double rate() {
+        return rate;
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        windowRequests++;
+        if (now - windowStartNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            measuredRate = currentWindowRate();
+            windowStartNanos = now;
+            windowRequests = 0;
+        }
+        if (!enabled) {
+            return 0;
+        }
+        tokens = Math.min(Math.max(1, rate), tokens + (now - lastRefillNanos) / 1e9 * rate);
+        lastRefillNanos = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) (-tokens / rate * 1e9);
+    }
+
+    private double currentWindowRate() {
+        double elapsed = (System.nanoTime() - windowStartNanos) / 1e9;
+        return elapsed <= 0 ? 0 : windowRequests / elapsed;
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.jcprieto.mvn;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+class BandwidthLimiter {
+
+    static final int MAX_READ = 64 * 1024;
+
+    private final long bytesPerSecond;
+    private final long burstBytes;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    BandwidthLimiter(long bytesPerSecond, long burstBytes) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.burstBytes = burstBytes > 0 ? burstBytes : bytesPerSecond;
+        this.tokens = this.burstBytes;
+    }
+
+    long bytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    long burstBytes() {
+        return burstBytes;
+    }
+
+    InputStream throttle(InputStream in) {
+        return new ThrottledInputStream(in);
+    }
+
+    void acquire(int bytes) throws InterruptedIOException {
+        long waitNanos = reserve(bytes);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for upload bandwidth");
+            }
+        }
+    }
+
+    // Tokens may go negative: later callers queue behind the debt, which keeps concurrent streams in FIFO order
+    synchronized long reserve(int bytes) {
+        long now = System.nanoTime();
+        tokens = Math.min(burstBytes, tokens + (now - lastRefillNanos) / 1e9 * bytesPerSecond);
+        lastRefillNanos = now;
+        tokens -= bytes;
+        return tokens >= 0 ? 0 : (long) (-tokens / bytesPerSecond * 1e9);
+    }
+
+    private final class ThrottledInputStream extends FilterInputStream {
+
+        ThrottledInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                acquire(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int bytesRead = super.read(buffer, offset, Math.min(length, MAX_READ));
+            if (bytesRead > 0) {
+                acquire(bytesRead);
+            }
+            return bytesRead;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.jcprieto.mvn;
+
+import java.io.InterruptedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+class ByteBufferPool {
+
+    private final int capacity;
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> free = new LinkedBlockingQueue<>();
+    private int allocated;
+
+    ByteBufferPool(int capacity, int bufferSize) {
+        this.capacity = Math.max(1, capacity);
+        this.bufferSize = bufferSize;
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+
+    synchronized int allocated() {
+        return allocated;
+    }
+
+    // Direct buffers are allocated on demand up to the capacity and then recycled, so memory never exceeds capacity * size
+    ByteBuffer acquire() throws InterruptedIOException {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        synchronized (this) {
+            if (allocated < capacity) {
+                allocated++;
+                return ByteBuffer.allocateDirect(bufferSize);
+            }
+        }
+        try {
+            return free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an upload buffer");
+        }
+    }
+
+    void release(ByteBuffer buffer) {
+        // Cast keeps the Java 8 Buffer.clear() signature when compiled on newer JDKs
+        ((Buffer) buffer).clear();
+        free.offer(buffer);
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.jcprieto.mvn;
+
+import software.amazon.awssdk.checksums.DefaultChecksumAlgorithm;
+import software.amazon.awssdk.checksums.SdkChecksum;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+
+final class Checksums {
+
+    static final String SHA256_METADATA_KEY = "sha256";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final long CRC32C_POLYNOMIAL = 0x82F63B78L;
+
+    private Checksums() {
+    }
+
+    static byte[] sha256(File file) throws IOException {
+        return digest(file, newSha256());
+    }
+
+    static byte[] md5(File file) throws IOException {
+        try {
+            return digest(file, MessageDigest.getInstance("MD5"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    static byte[] crc32c(File file) throws IOException {
+        SdkChecksum checksum = newChecksum(ChecksumAlgorithm.CRC32_C);
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                checksum.update(buffer, 0, bytesRead);
+            }
+        }
+        return checksum.getChecksumBytes();
+    }
+
+    private static byte[] digest(File file, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, bytesRead);
+            }
+        }
+        return digest.digest();
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    static String toBase64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    static ChecksumAlgorithm parseAlgorithm(String value) {
+        if (value == null || value.trim().isEmpty() || "NONE".equalsIgnoreCase(value.trim())) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace("-", "");
+        if ("CRC32C".equals(normalized)) {
+            return ChecksumAlgorithm.CRC32_C;
+        }
+        if ("SHA256".equals(normalized)) {
+            return ChecksumAlgorithm.SHA256;
+        }
+        throw new IllegalArgumentException("Unsupported checksum algorithm: " + value);
+    }
+
+    static SdkChecksum newChecksum(ChecksumAlgorithm algorithm) {
+        return SdkChecksum.forAlgorithm(algorithm == ChecksumAlgorithm.SHA256
+                ? DefaultChecksumAlgorithm.SHA256
+                : DefaultChecksumAlgorithm.CRC32C);
+    }
+
+    static String sidecarExtension(ChecksumAlgorithm algorithm) {
+        return algorithm == ChecksumAlgorithm.SHA256 ? ".sha256" : ".crc32c";
+    }
+
+    static void writeSidecar(File artifact, ChecksumAlgorithm algorithm, byte[] checksum) throws IOException {
+        File sidecar = new File(artifact.getPath() + sidecarExtension(algorithm));
+        Files.write(sidecar.toPath(), (toHex(checksum) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CompletedPart.Builder withChecksum(CompletedPart.Builder part, ChecksumAlgorithm algorithm, String checksum) {
+        if (algorithm == ChecksumAlgorithm.SHA256) {
+            return part.checksumSHA256(checksum);
+        }
+        if (algorithm == ChecksumAlgorithm.CRC32_C) {
+            return part.checksumCRC32C(checksum);
+        }
+        return part;
+    }
+
+    static long crc32cValue(byte[] checksum) {
+        return ((checksum[0] & 0xFFL) << 24) | ((checksum[1] & 0xFFL) << 16) | ((checksum[2] & 0xFFL) << 8) | (checksum[3] & 0xFFL);
+    }
+
+    static byte[] crc32cBytes(long crc) {
+        return new byte[]{(byte) (crc >>> 24), (byte) (crc >>> 16), (byte) (crc >>> 8), (byte) crc};
+    }
+
+    // zlib's crc32_combine: CRC of A||B from CRC(A), CRC(B) and len(B), without touching the data again.
+    static long crc32cCombine(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = CRC32C_POLYNOMIAL;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+        long remaining = length2;
+        long crc = crc1;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((remaining & 1) != 0) {
+                crc = gf2MatrixTimes(even, crc);
+            }
+            remaining >>= 1;
+            if (remaining == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((remaining & 1) != 0) {
+                crc = gf2MatrixTimes(odd, crc);
+            }
+            remaining >>= 1;
+        } while (remaining != 0);
+        return (crc ^ crc2) & 0xFFFFFFFFL;
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        int index = 0;
+        long remaining = vector;
+        while (remaining != 0) {
+            if ((remaining & 1) != 0) {
+                sum ^= matrix[index];
+            }
+            remaining >>>= 1;
+            index++;
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+}
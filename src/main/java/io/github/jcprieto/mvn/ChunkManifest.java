@@ -0,0 +1,91 @@
+package io.github.jcprieto.mvn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+class ChunkManifest {
+
+    static final String SUFFIX = ".manifest";
+    private static final String FORMAT = "mvn-s3-upload-chunks/1";
+    private static final String CHUNK_PREFIX = "chunk.";
+
+    private final long size;
+    private final int chunkSize;
+    private final String chunkPrefix;
+    private final List<ContentDefinedChunker.Chunk> chunks;
+
+    ChunkManifest(long size, int chunkSize, String chunkPrefix, List<ContentDefinedChunker.Chunk> chunks) {
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.chunkPrefix = chunkPrefix;
+        this.chunks = Collections.unmodifiableList(new ArrayList<>(chunks));
+    }
+
+    long size() {
+        return size;
+    }
+
+    int chunkSize() {
+        return chunkSize;
+    }
+
+    String chunkPrefix() {
+        return chunkPrefix;
+    }
+
+    List<ContentDefinedChunker.Chunk> chunks() {
+        return chunks;
+    }
+
+    String chunkKey(ContentDefinedChunker.Chunk chunk) {
+        return chunkPrefix + chunk.sha256;
+    }
+
+    byte[] toBytes() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("format", FORMAT);
+        properties.setProperty("size", Long.toString(size));
+        properties.setProperty("chunkSize", Integer.toString(chunkSize));
+        properties.setProperty("chunkPrefix", chunkPrefix);
+        properties.setProperty("chunks", Integer.toString(chunks.size()));
+        for (int i = 0; i < chunks.size(); i++) {
+            ContentDefinedChunker.Chunk chunk = chunks.get(i);
+            properties.setProperty(CHUNK_PREFIX + i, chunk.sha256 + "," + chunk.length);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        properties.store(out, null);
+        return out.toByteArray();
+    }
+
+    static ChunkManifest parse(byte[] content) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(content));
+        if (!FORMAT.equals(properties.getProperty("format"))) {
+            throw new IOException("Unsupported chunk manifest format: " + properties.getProperty("format"));
+        }
+        try {
+            int count = Integer.parseInt(properties.getProperty("chunks"));
+            List<ContentDefinedChunker.Chunk> chunks = new ArrayList<>(count);
+            long offset = 0;
+            for (int i = 0; i < count; i++) {
+                String[] fields = properties.getProperty(CHUNK_PREFIX + i).split(",");
+                int length = Integer.parseInt(fields[1]);
+                chunks.add(new ContentDefinedChunker.Chunk(offset, length, fields[0]));
+                offset += length;
+            }
+            long size = Long.parseLong(properties.getProperty("size"));
+            if (offset != size) {
+                throw new IOException("Chunk manifest lengths add up to " + offset + " bytes, expected " + size);
+            }
+            return new ChunkManifest(size, Integer.parseInt(properties.getProperty("chunkSize")),
+                    properties.getProperty("chunkPrefix"), chunks);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed chunk manifest", e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.jcprieto.mvn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+enum Compression {
+
+    NONE(null),
+    GZIP("gzip"),
+    ZSTD("zstd");
+
+    private static final String ZSTD_OUTPUT_STREAM = "com.github.luben.zstd.ZstdOutputStream";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "jar", "war", "ear", "aar", "zip", "gz", "tgz", "bz2", "tbz2", "xz", "txz", "zst", "7z", "rar",
+            "lz4", "br", "png", "jpg", "jpeg", "gif", "webp", "mp3", "mp4"));
+
+    private final String contentEncoding;
+
+    Compression(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    static Compression parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return NONE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported compression: " + value, e);
+        }
+    }
+
+    static boolean isAlreadyCompressed(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    String contentEncoding() {
+        return contentEncoding;
+    }
+
+    String extension() {
+        switch (this) {
+            case GZIP:
+                return ".gz";
+            case ZSTD:
+                return ".zst";
+            default:
+                return "";
+        }
+    }
+
+    boolean isAvailable() {
+        if (this != ZSTD) {
+            return true;
+        }
+        try {
+            Class.forName(ZSTD_OUTPUT_STREAM, false, Compression.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    long compress(File source, File target) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(source.toPath());
+             OutputStream out = open(Files.newOutputStream(target.toPath()))) {
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                out.write(buffer, 0, bytesRead);
+            }
+        }
+        return target.length();
+    }
+
+    OutputStream open(OutputStream out) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(out, BUFFER_SIZE);
+            case ZSTD:
+                return newZstdStream(out);
+            default:
+                return out;
+        }
+    }
+
+    private static OutputStream newZstdStream(OutputStream out) throws IOException {
+        try {
+            Constructor<?> constructor = Class.forName(ZSTD_OUTPUT_STREAM, true, Compression.class.getClassLoader())
+                    .getConstructor(OutputStream.class);
+            return (OutputStream) constructor.newInstance(out);
+        } catch (InvocationTargetException e) {
+            out.close();
+            throw new IOException("Failed to open zstd stream", e.getCause());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            out.close();
+            throw new IOException("zstd compression is not available (add com.github.luben:zstd-jni to the plugin dependencies)", e);
+        }
+    }
+}
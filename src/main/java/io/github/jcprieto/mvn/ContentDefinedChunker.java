@@ -0,0 +1,164 @@
+package io.github.jcprieto.mvn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class ContentDefinedChunker {
+
+    static final int DEFAULT_AVERAGE_SIZE = 1024 * 1024;
+    static final int MIN_AVERAGE_SIZE = 4 * 1024;
+    static final int MAX_AVERAGE_SIZE = 64 * 1024 * 1024;
+    private static final long MAX_REGION = 1024L * 1024 * 1024;
+    private static final int WINDOW = 64;
+    private static final long[] GEAR = gearTable();
+
+    static final class Chunk {
+        final long offset;
+        final int length;
+        final String sha256;
+
+        Chunk(long offset, int length, String sha256) {
+            this.offset = offset;
+            this.length = length;
+            this.sha256 = sha256;
+        }
+    }
+
+    private final int averageSize;
+    private final int minSize;
+    private final int maxSize;
+    private final long mask;
+
+    ContentDefinedChunker(int averageSize) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(MIN_AVERAGE_SIZE, averageSize) - 1);
+        this.averageSize = 1 << bits;
+        this.minSize = this.averageSize / 4;
+        this.maxSize = this.averageSize * 4;
+        // Bit k of a gear hash only depends on the last k + 1 bytes, so the cut condition uses the top bits
+        this.mask = -1L << (64 - bits);
+    }
+
+    int averageSize() {
+        return averageSize;
+    }
+
+    // Candidate cuts depend only on the previous 64 bytes, so regions are scanned in parallel and the min/max rules
+    // applied afterwards in order; the result is identical to a single sequential pass
+    List<Chunk> chunk(File file, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), new DaemonThreadFactory("s3-chunker"));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+            long regionSize = Math.min(MAX_REGION, Math.max(maxSize, (size + threads - 1) / Math.max(1, threads)));
+            List<Future<List<Long>>> scans = new ArrayList<>();
+            for (long start = 0; start < size; start += regionSize) {
+                long regionStart = start;
+                long regionEnd = Math.min(size, start + regionSize);
+                scans.add(executor.submit(() -> candidates(channel, regionStart, regionEnd)));
+            }
+            List<long[]> bounds = selectCuts(join(scans), size);
+            List<Future<Chunk>> hashes = new ArrayList<>(bounds.size());
+            for (long[] bound : bounds) {
+                hashes.add(executor.submit(hash(channel, bound[0], (int) bound[1])));
+            }
+            return join(hashes);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Long> candidates(FileChannel channel, long start, long end) throws IOException {
+        long warmStart = Math.max(0, start - (WINDOW - 1));
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, warmStart, end - warmStart);
+        List<Long> cuts = new ArrayList<>();
+        long hash = 0;
+        long position = warmStart;
+        while (region.hasRemaining()) {
+            hash = (hash << 1) + GEAR[region.get() & 0xFF];
+            position++;
+            if (position > start && (hash & mask) == 0) {
+                cuts.add(position);
+            }
+        }
+        return cuts;
+    }
+
+    private List<long[]> selectCuts(List<List<Long>> regions, long size) {
+        List<long[]> bounds = new ArrayList<>();
+        long last = 0;
+        for (List<Long> candidates : regions) {
+            for (long cut : candidates) {
+                while (cut - last > maxSize) {
+                    bounds.add(new long[]{last, maxSize});
+                    last += maxSize;
+                }
+                if (cut - last >= minSize) {
+                    bounds.add(new long[]{last, cut - last});
+                    last = cut;
+                }
+            }
+        }
+        while (size - last > maxSize) {
+            bounds.add(new long[]{last, maxSize});
+            last += maxSize;
+        }
+        if (size > last) {
+            bounds.add(new long[]{last, size - last});
+        }
+        return bounds;
+    }
+
+    private static Callable<Chunk> hash(FileChannel channel, long offset, int length) {
+        return () -> {
+            MessageDigest digest = Checksums.newSha256();
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+            return new Chunk(offset, length, Checksums.toHex(digest.digest()));
+        };
+    }
+
+    private static <T> List<T> join(List<Future<T>> futures) throws IOException {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Chunking interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Chunking failed", cause);
+        }
+        return results;
+    }
+
+    // SplitMix64 with a fixed seed: the table is part of the chunk format and must never change
+    private static long[] gearTable() {
+        long[] table = new long[256];
+        long state = 0x6A09E667F3BCC909L;
+        for (int i = 0; i < table.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            table[i] = z ^ (z >>> 31);
+        }
+        return table;
+    }
+}
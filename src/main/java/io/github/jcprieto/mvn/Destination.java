@@ -0,0 +1,56 @@
+package io.github.jcprieto.mvn;
+
+public class Destination {
+
+    private String bucket;
+    private String region;
+    private String path;
+    private String[] cannonicalIds;
+
+    public Destination() {
+    }
+
+    Destination(String bucket, String region, String path, String[] cannonicalIds) {
+        this.bucket = bucket;
+        this.region = region;
+        this.path = path;
+        this.cannonicalIds = cannonicalIds;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String[] getCannonicalIds() {
+        return cannonicalIds;
+    }
+
+    public void setCannonicalIds(String[] cannonicalIds) {
+        this.cannonicalIds = cannonicalIds;
+    }
+
+    @Override
+    public String toString() {
+        return "s3://" + bucket + "/" + (path == null ? "" : path) + " (" + region + ")";
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.jcprieto.mvn;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Checksum;
+
+class FanOutBuffer implements Closeable {
+
+    static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    static final int DEFAULT_CHUNKS = 8;
+
+    private final File file;
+    private final byte[][] chunks;
+    private final int[] chunkLengths;
+    private final long[] consumed;
+    private final boolean[] released;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition chunkProduced = lock.newCondition();
+    private final Condition chunkFreed = lock.newCondition();
+    private long produced;
+    private boolean endOfFile;
+    private IOException readFailure;
+    private Thread reader;
+
+    FanOutBuffer(File file, int consumers) {
+        this(file, consumers, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNKS);
+    }
+
+    FanOutBuffer(File file, int consumers, int chunkSize, int chunkCount) {
+        this.file = file;
+        this.chunks = new byte[chunkCount][chunkSize];
+        this.chunkLengths = new int[chunkCount];
+        this.consumed = new long[consumers];
+        this.released = new boolean[consumers];
+    }
+
+    synchronized void start() {
+        if (reader == null) {
+            reader = new DaemonThreadFactory("s3-fan-out").newThread(this::readFile);
+            reader.start();
+        }
+    }
+
+    InputStream stream(int consumer, Checksum checksum, ProgressListener tracker) {
+        return new ConsumerStream(consumer, checksum, tracker);
+    }
+
+    void release(int consumer) {
+        lock.lock();
+        try {
+            released[consumer] = true;
+            chunkFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            for (int i = 0; i < released.length; i++) {
+                released[i] = true;
+            }
+            chunkFreed.signalAll();
+            chunkProduced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void readFile() {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (true) {
+                int slot;
+                lock.lock();
+                try {
+                    while (!allReleased() && produced - slowestConsumer() >= chunks.length) {
+                        chunkFreed.await();
+                    }
+                    if (allReleased()) {
+                        return;
+                    }
+                    slot = (int) (produced % chunks.length);
+                } finally {
+                    lock.unlock();
+                }
+                int length = fill(channel, ByteBuffer.wrap(chunks[slot]));
+                lock.lock();
+                try {
+                    if (length == 0) {
+                        endOfFile = true;
+                    } else {
+                        chunkLengths[slot] = length;
+                        produced++;
+                    }
+                    chunkProduced.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                if (length == 0) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(new InterruptedIOException("Fan-out read interrupted"));
+        }
+    }
+
+    private static int fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+
+    private void fail(IOException e) {
+        lock.lock();
+        try {
+            readFailure = e;
+            chunkProduced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean allReleased() {
+        for (boolean consumerReleased : released) {
+            if (!consumerReleased) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long slowestConsumer() {
+        long slowest = Long.MAX_VALUE;
+        for (int i = 0; i < consumed.length; i++) {
+            if (!released[i]) {
+                slowest = Math.min(slowest, consumed[i]);
+            }
+        }
+        return slowest == Long.MAX_VALUE ? produced : slowest;
+    }
+
+    private final class ConsumerStream extends InputStream {
+
+        private final int consumer;
+        private final Checksum checksum;
+        private final ProgressListener tracker;
+        private final byte[] single = new byte[1];
+        private int positionInChunk;
+        private boolean closed;
+
+        ConsumerStream(int consumer, Checksum checksum, ProgressListener tracker) {
+            this.consumer = consumer;
+            this.checksum = checksum;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int slot;
+            lock.lock();
+            try {
+                while (!closed && consumed[consumer] == produced && !endOfFile && readFailure == null
+                        && !released[consumer]) {
+                    chunkProduced.await();
+                }
+                if (readFailure != null) {
+                    throw new IOException("Failed to read " + file, readFailure);
+                }
+                if (closed || released[consumer]) {
+                    throw new IOException("Stream closed");
+                }
+                if (consumed[consumer] == produced) {
+                    return -1;
+                }
+                slot = (int) (consumed[consumer] % chunks.length);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for " + file);
+            } finally {
+                lock.unlock();
+            }
+            // The slot cannot be overwritten until this consumer advances past it
+            int bytesRead = Math.min(length, chunkLengths[slot] - positionInChunk);
+            System.arraycopy(chunks[slot], positionInChunk, buffer, offset, bytesRead);
+            if (checksum != null) {
+                checksum.update(buffer, offset, bytesRead);
+            }
+            if (tracker != null) {
+                tracker.onBytesRead(bytesRead);
+            }
+            positionInChunk += bytesRead;
+            if (positionInChunk == chunkLengths[slot]) {
+                lock.lock();
+                try {
+                    consumed[consumer]++;
+                    positionInChunk = 0;
+                    chunkFreed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return bytesRead;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(consumer);
+            }
+        }
+    }
+}
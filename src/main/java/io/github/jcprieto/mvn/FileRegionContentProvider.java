@@ -0,0 +1,99 @@
+package io.github.jcprieto.mvn;
+
+import software.amazon.awssdk.checksums.SdkChecksum;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+class FileRegionContentProvider implements ContentStreamProvider {
+
+    private final File file;
+    private final long offset;
+    private final long length;
+    private final ChecksumAlgorithm checksumAlgorithm;
+    private final ProgressTracker tracker;
+    private final UploadMetrics metrics;
+    private final BandwidthLimiter limiter;
+    private FanOutBuffer fanOut;
+    private int fanOutConsumer;
+    private volatile SdkChecksum checksum;
+    private ProgressTracker.Attempt attempt;
+
+    FileRegionContentProvider(File file, long offset, long length, ChecksumAlgorithm checksumAlgorithm,
+                              ProgressTracker tracker) {
+        this(file, offset, length, checksumAlgorithm, tracker, null);
+    }
+
+    FileRegionContentProvider(File file, long offset, long length, ChecksumAlgorithm checksumAlgorithm,
+                              ProgressTracker tracker, UploadMetrics metrics) {
+        this(file, offset, length, checksumAlgorithm, tracker, metrics, null);
+    }
+
+    FileRegionContentProvider(File file, long offset, long length, ChecksumAlgorithm checksumAlgorithm,
+                              ProgressTracker tracker, UploadMetrics metrics, BandwidthLimiter limiter) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.tracker = tracker;
+        this.metrics = metrics;
+        this.limiter = limiter;
+    }
+
+    synchronized void shareFirstStream(FanOutBuffer fanOut, int consumer) {
+        this.fanOut = fanOut;
+        this.fanOutConsumer = consumer;
+    }
+
+    @Override
+    public InputStream newStream() {
+        if (metrics != null) {
+            metrics.firstByte();
+        }
+        checksum = checksumAlgorithm == null ? null : Checksums.newChecksum(checksumAlgorithm);
+        ProgressTracker.Attempt progress = nextAttempt();
+        FanOutBuffer shared = takeFanOut();
+        InputStream stream;
+        if (shared != null) {
+            stream = shared.stream(fanOutConsumer, checksum, progress);
+        } else {
+            try {
+                stream = new FileRegionInputStream(file, offset, length, checksum, progress);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to open artifact for upload: " + file, e);
+            }
+        }
+        return limiter == null ? stream : limiter.throttle(stream);
+    }
+
+    // Retries and signing passes reopen the body; only the latest stream counts towards the progress
+    private synchronized ProgressTracker.Attempt nextAttempt() {
+        if (tracker == null) {
+            return null;
+        }
+        if (attempt != null) {
+            attempt.discard();
+        }
+        attempt = tracker.newAttempt();
+        return attempt;
+    }
+
+    private synchronized FanOutBuffer takeFanOut() {
+        FanOutBuffer shared = fanOut;
+        fanOut = null;
+        return shared;
+    }
+
+    @Override
+    public String name() {
+        return "FileRegion";
+    }
+
+    byte[] checksumBytes() {
+        SdkChecksum current = checksum;
+        return current == null ? null : current.getChecksumBytes();
+    }
+}
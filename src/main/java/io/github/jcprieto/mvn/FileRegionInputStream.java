@@ -0,0 +1,121 @@
+package io.github.jcprieto.mvn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Checksum;
+
+// The sync SDK only takes InputStream bodies, so every read still copies once from the mapping into the HTTP client's
+// heap buffer. Mapping saves the FileInputStream native bounce buffer and the filter stream layers, not that copy.
+class FileRegionInputStream extends InputStream {
+
+    static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int PROGRESS_BATCH = 256 * 1024;
+
+    private final FileChannel channel;
+    private final long windowSize;
+    private final long end;
+    private final Checksum checksum;
+    private final ProgressListener tracker;
+    private long position;
+    private MappedByteBuffer window;
+    private int unreportedBytes;
+
+    FileRegionInputStream(File file, long offset, long length, Checksum checksum, ProgressListener tracker)
+            throws IOException {
+        this(file, offset, length, checksum, tracker, WINDOW_SIZE);
+    }
+
+    FileRegionInputStream(File file, long offset, long length, Checksum checksum, ProgressListener tracker,
+                          long windowSize) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.windowSize = windowSize;
+        this.position = offset;
+        this.end = offset + length;
+        this.checksum = checksum;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureWindow()) {
+            return -1;
+        }
+        int value = window.get() & 0xFF;
+        position++;
+        if (checksum != null) {
+            checksum.update(value);
+        }
+        reportProgress(1);
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureWindow()) {
+            return -1;
+        }
+        int bytesRead = Math.min(length, window.remaining());
+        window.get(buffer, offset, bytesRead);
+        position += bytesRead;
+        if (checksum != null) {
+            checksum.update(buffer, offset, bytesRead);
+        }
+        reportProgress(bytesRead);
+        return bytesRead;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, end - position));
+        position += skipped;
+        window = null;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, end - position));
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushProgress();
+        window = null;
+        channel.close();
+    }
+
+    private boolean ensureWindow() throws IOException {
+        if (position >= end) {
+            flushProgress();
+            return false;
+        }
+        if (window == null || !window.hasRemaining()) {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, end - position));
+        }
+        return true;
+    }
+
+    private void reportProgress(int bytesRead) {
+        if (tracker == null) {
+            return;
+        }
+        unreportedBytes += bytesRead;
+        if (unreportedBytes >= PROGRESS_BATCH) {
+            flushProgress();
+        }
+    }
+
+    private void flushProgress() {
+        if (tracker != null && unreportedBytes > 0) {
+            tracker.onBytesRead(unreportedBytes);
+            unreportedBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.logging.Log;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.ChecksumType;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+class MultipartUploader {
+
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+    static final int MAX_PARTS = 10000;
+
+    private final S3Client s3Client;
+    private final Log log;
+    private final long partSize;
+    private final int concurrency;
+    private final ChecksumAlgorithm checksumAlgorithm;
+    private final UploadRetryPolicy retryPolicy;
+    private UploadMetrics metrics;
+    private BandwidthLimiter bandwidthLimiter;
+    private UploadScheduler scheduler;
+    private String schedulerOwner;
+    private volatile byte[] objectChecksum;
+    private final LongAdder partBytes = new LongAdder();
+    private final LongAdder partNanos = new LongAdder();
+    private final Object activity = new Object();
+    private int partsInFlight;
+    private long activeSince;
+    private long activeNanos;
+
+    MultipartUploader(S3Client s3Client, Log log, long partSize, int concurrency) {
+        this(s3Client, log, partSize, concurrency, null);
+    }
+
+    MultipartUploader(S3Client s3Client, Log log, long partSize, int concurrency, ChecksumAlgorithm checksumAlgorithm) {
+        this(s3Client, log, partSize, concurrency, checksumAlgorithm, UploadRetryPolicy.noRetry(log));
+    }
+
+    MultipartUploader(S3Client s3Client, Log log, long partSize, int concurrency, ChecksumAlgorithm checksumAlgorithm,
+                      UploadRetryPolicy retryPolicy) {
+        this.s3Client = s3Client;
+        this.log = log;
+        this.partSize = partSize;
+        this.concurrency = Math.max(1, concurrency);
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.retryPolicy = retryPolicy;
+    }
+
+    static long effectivePartSize(long fileLength, long requestedPartSize) {
+        long size = Math.max(MIN_PART_SIZE, Math.min(requestedPartSize, MAX_PART_SIZE));
+        long minimumForLength = (fileLength + MAX_PARTS - 1) / MAX_PARTS;
+        return Math.max(size, minimumForLength);
+    }
+
+    CompleteMultipartUploadResponse upload(CreateMultipartUploadRequest createRequest, File file,
+                                           ProgressTracker tracker) throws IOException {
+        return upload(createRequest, file, tracker, null);
+    }
+
+    CompleteMultipartUploadResponse upload(CreateMultipartUploadRequest createRequest, File file,
+                                           ProgressTracker tracker, File checkpointFile) throws IOException {
+        long fileLength = file.length();
+        int partCount = (int) Math.max(1, (fileLength + partSize - 1) / partSize);
+        objectChecksum = null;
+        if (checksumAlgorithm != null) {
+            createRequest = createRequest.toBuilder()
+                    .checksumAlgorithm(checksumAlgorithm)
+                    .checksumType(checksumAlgorithm == ChecksumAlgorithm.CRC32_C ? ChecksumType.FULL_OBJECT : ChecksumType.COMPOSITE)
+                    .build();
+        }
+        UploadCheckpoint checkpoint = checkpointFile == null ? null : resumeOrStart(createRequest, file, checkpointFile);
+        String uploadId;
+        Map<Integer, String> completed;
+        Map<Integer, String> completedChecksums;
+        if (checkpoint != null && checkpoint.uploadId() != null) {
+            uploadId = checkpoint.uploadId();
+            completed = checkpoint.completedParts();
+            completedChecksums = checkpoint.partChecksums();
+            if (checksumAlgorithm != null) {
+                completed.keySet().retainAll(completedChecksums.keySet());
+            }
+        } else {
+            CreateMultipartUploadRequest request = createRequest;
+            uploadId = retryPolicy.execute("createMultipartUpload " + request.key(), metrics,
+                    () -> s3Client.createMultipartUpload(request)).uploadId();
+            completed = new TreeMap<>();
+            completedChecksums = new TreeMap<>();
+            if (checkpoint != null) {
+                checkpoint.setUploadId(uploadId);
+                checkpoint.save();
+            }
+        }
+        int pending = partCount - completed.size();
+        log.info("Multipart upload started: " + partCount + " parts of " + partSize + " bytes, "
+                + Math.min(concurrency, Math.max(1, pending)) + " in parallel");
+        if (!completed.isEmpty()) {
+            log.info("Resuming multipart upload " + uploadId + ": " + completed.size() + " parts already uploaded");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(1, pending)),
+                new DaemonThreadFactory("s3-upload-part"));
+        try {
+            List<Future<CompletedPart>> futures = new ArrayList<>(partCount);
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                long offset = (partNumber - 1) * partSize;
+                long length = Math.min(partSize, fileLength - offset);
+                int number = partNumber;
+                String eTag = completed.get(partNumber);
+                if (eTag != null) {
+                    if (tracker != null) {
+                        tracker.onBytesRead(length);
+                    }
+                    futures.add(CompletableFuture.completedFuture(Checksums.withChecksum(
+                            CompletedPart.builder().partNumber(number).eTag(eTag), checksumAlgorithm,
+                            completedChecksums.get(partNumber)).build()));
+                } else {
+                    CreateMultipartUploadRequest partRequest = createRequest;
+                    futures.add(executor.submit(() -> uploadPart(partRequest, uploadId, file, number, offset, length,
+                            tracker, checkpoint)));
+                }
+            }
+            List<CompletedPart> completedParts = new ArrayList<>(partCount);
+            for (Future<CompletedPart> future : futures) {
+                completedParts.add(future.get());
+            }
+            CompleteMultipartUploadRequest.Builder completeRequest = CompleteMultipartUploadRequest.builder()
+                    .bucket(createRequest.bucket())
+                    .key(createRequest.key())
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build());
+            if (checksumAlgorithm == ChecksumAlgorithm.CRC32_C) {
+                objectChecksum = combineCrc32c(completedParts, fileLength);
+                completeRequest.checksumType(ChecksumType.FULL_OBJECT)
+                        .checksumCRC32C(Checksums.toBase64(objectChecksum));
+            }
+            CompleteMultipartUploadRequest request = completeRequest.build();
+            CompleteMultipartUploadResponse response = retryPolicy.execute("completeMultipartUpload " + request.key(),
+                    metrics, () -> s3Client.completeMultipartUpload(request));
+            if (checkpoint != null) {
+                checkpoint.delete();
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            abortUnlessResumable(createRequest, uploadId, checkpoint);
+            throw new IOException("Multipart upload interrupted", e);
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            abortUnlessResumable(createRequest, uploadId, checkpoint);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Multipart upload failed", cause);
+        } catch (RuntimeException e) {
+            executor.shutdownNow();
+            abortUnlessResumable(createRequest, uploadId, checkpoint);
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    void setMetrics(UploadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    void setBandwidthLimiter(BandwidthLimiter bandwidthLimiter) {
+        this.bandwidthLimiter = bandwidthLimiter;
+    }
+
+    void setScheduler(UploadScheduler scheduler, String owner) {
+        this.scheduler = scheduler;
+        this.schedulerOwner = owner;
+    }
+
+    byte[] objectChecksum() {
+        return objectChecksum;
+    }
+
+    long streamBytesPerSecond() {
+        long nanos = partNanos.sum();
+        return nanos <= 0 ? 0 : (long) (partBytes.sum() * 1_000_000_000.0 / nanos);
+    }
+
+    long sentBytes() {
+        return partBytes.sum();
+    }
+
+    // Time with at least one part on the wire: slots spent waiting for other modules do not slow the aggregate rate
+    long activeNanos() {
+        synchronized (activity) {
+            return activeNanos;
+        }
+    }
+
+    private byte[] combineCrc32c(List<CompletedPart> parts, long fileLength) {
+        long crc = 0;
+        long offset = 0;
+        for (CompletedPart part : parts) {
+            long length = Math.min(partSize, fileLength - offset);
+            long partCrc = Checksums.crc32cValue(Base64.getDecoder().decode(part.checksumCRC32C()));
+            crc = offset == 0 ? partCrc : Checksums.crc32cCombine(crc, partCrc, length);
+            offset += length;
+        }
+        return Checksums.crc32cBytes(crc);
+    }
+
+    private UploadCheckpoint resumeOrStart(CreateMultipartUploadRequest createRequest, File file, File checkpointFile)
+            throws IOException {
+        UploadCheckpoint current = new UploadCheckpoint(checkpointFile, createRequest.bucket(), createRequest.key(), file, partSize);
+        UploadCheckpoint previous = UploadCheckpoint.load(checkpointFile);
+        if (previous == null) {
+            return current;
+        }
+        if (!current.matches(previous)) {
+            log.info("Artifact changed since the interrupted upload, discarding checkpoint " + checkpointFile);
+            abort(previous.bucket(), previous.key(), previous.uploadId());
+            previous.delete();
+            return current;
+        }
+        Map<Integer, String> remoteParts;
+        try {
+            remoteParts = listUploadedParts(previous);
+        } catch (NoSuchUploadException e) {
+            log.info("Multipart upload " + previous.uploadId() + " no longer exists, starting again");
+            previous.delete();
+            return current;
+        }
+        previous.retainParts(remoteParts);
+        return previous;
+    }
+
+    private Map<Integer, String> listUploadedParts(UploadCheckpoint checkpoint) throws IOException {
+        Map<Integer, String> parts = new TreeMap<>();
+        Integer marker = null;
+        ListPartsResponse response;
+        do {
+            ListPartsRequest request = ListPartsRequest.builder()
+                    .bucket(checkpoint.bucket())
+                    .key(checkpoint.key())
+                    .uploadId(checkpoint.uploadId())
+                    .partNumberMarker(marker)
+                    .build();
+            response = retryPolicy.execute("listParts " + checkpoint.key(), metrics, () -> s3Client.listParts(request));
+            for (Part part : response.parts()) {
+                parts.put(part.partNumber(), part.eTag());
+            }
+            marker = response.nextPartNumberMarker();
+        } while (Boolean.TRUE.equals(response.isTruncated()));
+        return parts;
+    }
+
+    private CompletedPart uploadPart(CreateMultipartUploadRequest createRequest, String uploadId, File file,
+                                     int partNumber, long offset, long length, ProgressTracker tracker,
+                                     UploadCheckpoint checkpoint) throws IOException {
+        UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(createRequest.bucket())
+                .key(createRequest.key())
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(length)
+                .checksumAlgorithm(checksumAlgorithm)
+                .build();
+        FileRegionContentProvider provider = new FileRegionContentProvider(file, offset, length, checksumAlgorithm,
+                tracker, metrics, bandwidthLimiter);
+        RequestBody body = RequestBody.fromContentProvider(provider, length, "application/octet-stream");
+        UploadPartResponse response = retryPolicy.execute("uploadPart " + partNumber + " of " + request.key(), metrics,
+                () -> scheduler == null
+                        ? sendPart(request, body, length)
+                        : scheduler.run(schedulerOwner, () -> sendPart(request, body, length)));
+        byte[] checksumBytes = provider.checksumBytes();
+        String checksum = checksumBytes == null ? null : Checksums.toBase64(checksumBytes);
+        if (checkpoint != null) {
+            checkpoint.partCompleted(partNumber, response.eTag(), checksum);
+        }
+        return Checksums.withChecksum(CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(response.eTag()), checksumAlgorithm, checksum)
+                .build();
+    }
+
+    // Timed inside the scheduler slot so that queueing does not count against the per-connection throughput
+    private UploadPartResponse sendPart(UploadPartRequest request, RequestBody body, long length) {
+        partStarted();
+        long start = System.nanoTime();
+        try {
+            UploadPartResponse response = s3Client.uploadPart(request, body);
+            partNanos.add(System.nanoTime() - start);
+            partBytes.add(length);
+            return response;
+        } finally {
+            partEnded();
+            if (metrics != null) {
+                metrics.requestCompleted(start);
+            }
+        }
+    }
+
+    private void partStarted() {
+        synchronized (activity) {
+            if (partsInFlight++ == 0) {
+                activeSince = System.nanoTime();
+            }
+        }
+    }
+
+    private void partEnded() {
+        synchronized (activity) {
+            if (--partsInFlight == 0) {
+                activeNanos += System.nanoTime() - activeSince;
+            }
+        }
+    }
+
+    private void abortUnlessResumable(CreateMultipartUploadRequest createRequest, String uploadId,
+                                      UploadCheckpoint checkpoint) {
+        if (checkpoint != null) {
+            log.warn("Multipart upload " + uploadId + " interrupted, it will be resumed on the next run");
+            return;
+        }
+        abort(createRequest.bucket(), createRequest.key(), uploadId);
+    }
+
+    private void abort(String bucket, String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            log.warn("Multipart upload aborted: " + uploadId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to abort multipart upload " + uploadId + ": " + e.getMessage());
+        }
+    }
+}
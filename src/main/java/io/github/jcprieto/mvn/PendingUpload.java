@@ -0,0 +1,22 @@
+package io.github.jcprieto.mvn;
+
+import java.util.concurrent.Callable;
+
+final class PendingUpload {
+
+    private final String target;
+    private final Callable<Long> task;
+
+    PendingUpload(String target, Callable<Long> task) {
+        this.target = target;
+        this.task = task;
+    }
+
+    String target() {
+        return target;
+    }
+
+    Callable<Long> task() {
+        return task;
+    }
+}
@@ -0,0 +1,6 @@
+package io.github.jcprieto.mvn;
+
+interface ProgressListener {
+
+    void onBytesRead(long bytesRead);
+}
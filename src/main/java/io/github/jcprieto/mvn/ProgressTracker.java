@@ -0,0 +1,147 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+class ProgressTracker implements ProgressListener {
+
+    enum Mode {
+        PERCENTAGE,
+        THROUGHPUT
+    }
+
+    static final long DEFAULT_INTERVAL_MILLIS = 2000;
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    private final Log log;
+    private final long totalBytes;
+    private final Mode mode;
+    private final long intervalNanos;
+    private final long bandwidthLimit;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder transferredBytes = new LongAdder();
+    private final AtomicInteger lastPercentageEmitted = new AtomicInteger(0);
+    private final AtomicLong nextEmitNanos;
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private long lastEmitNanos = startNanos;
+    private long lastEmitBytes;
+
+    ProgressTracker(Log log, long totalBytes) {
+        this(log, totalBytes, Mode.PERCENTAGE, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    ProgressTracker(Log log, long totalBytes, Mode mode, long intervalMillis) {
+        this(log, totalBytes, mode, intervalMillis, 0);
+    }
+
+    ProgressTracker(Log log, long totalBytes, Mode mode, long intervalMillis, long bandwidthLimit) {
+        this.log = log;
+        this.bandwidthLimit = bandwidthLimit;
+        this.totalBytes = totalBytes;
+        this.mode = mode;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+        this.nextEmitNanos = new AtomicLong(startNanos + intervalNanos);
+    }
+
+    @Override
+    public void onBytesRead(long bytesRead) {
+        if (bytesRead <= 0) {
+            return;
+        }
+        transferredBytes.add(bytesRead);
+        long current = Math.min(transferredBytes.sum(), totalBytes);
+        if (mode == Mode.PERCENTAGE) {
+            emitPercentage(current);
+        } else {
+            emitThroughput(current);
+        }
+    }
+
+    long transferredBytes() {
+        return transferredBytes.sum();
+    }
+
+    Attempt newAttempt() {
+        return new Attempt();
+    }
+
+    private void emitPercentage(long current) {
+        int percentage = (int) Math.min((current * 100) / totalBytes, 100);
+        int last = lastPercentageEmitted.get();
+        boolean finished = current == totalBytes && completed.compareAndSet(false, true);
+        boolean nextStep = percentage < 100 && percentage >= last + 10
+                && lastPercentageEmitted.compareAndSet(last, percentage);
+        if (finished || nextStep) {
+            String progress = "Upload progress: " + percentage + "% (" + current + "/" + totalBytes + " bytes)";
+            log.info(bandwidthLimit <= 0 ? progress : progress + throttledRate(current));
+        }
+    }
+
+    private void emitThroughput(long current) {
+        long now = System.nanoTime();
+        long next = nextEmitNanos.get();
+        boolean finished = current == totalBytes && completed.compareAndSet(false, true);
+        if (finished || (now >= next && nextEmitNanos.compareAndSet(next, now + intervalNanos))) {
+            log.info(describe(current, now));
+        }
+    }
+
+    private synchronized String describe(long current, long now) {
+        double elapsedSeconds = Math.max(1e-9, (now - startNanos) / 1e9);
+        double windowSeconds = Math.max(1e-9, (now - lastEmitNanos) / 1e9);
+        double averageRate = current / MEGABYTE / elapsedSeconds;
+        double instantRate = Math.max(0, current - lastEmitBytes) / MEGABYTE / windowSeconds;
+        lastEmitNanos = now;
+        lastEmitBytes = current;
+        int percentage = (int) Math.min((current * 100) / totalBytes, 100);
+        double bytesPerSecond = current / elapsedSeconds;
+        long etaSeconds = bytesPerSecond <= 0 ? -1 : (long) Math.ceil((totalBytes - current) / bytesPerSecond);
+        String progress = String.format(Locale.ROOT,
+                "Upload progress: %d%% (%d/%d bytes), %.2f MB/s now, %.2f MB/s average, ETA %s",
+                percentage, current, totalBytes, instantRate, averageRate, formatEta(etaSeconds));
+        return bandwidthLimit <= 0 ? progress
+                : progress + String.format(Locale.ROOT, " (limited to %.2f MB/s)", bandwidthLimit / MEGABYTE);
+    }
+
+    // One per request body stream: a retry discards what the failed attempt reported, so no byte is counted twice
+    final class Attempt implements ProgressListener {
+
+        private long reported;
+        private boolean discarded;
+
+        @Override
+        public synchronized void onBytesRead(long bytesRead) {
+            if (discarded || bytesRead <= 0) {
+                return;
+            }
+            reported += bytesRead;
+            ProgressTracker.this.onBytesRead(bytesRead);
+        }
+
+        synchronized void discard() {
+            discarded = true;
+            transferredBytes.add(-reported);
+            reported = 0;
+        }
+    }
+
+    // A throttled upload says so even in percentage mode, with the rate it actually reached
+    private String throttledRate(long current) {
+        double elapsedSeconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        return String.format(Locale.ROOT, ", %.2f MB/s average (limited to %.2f MB/s)",
+                current / MEGABYTE / elapsedSeconds, bandwidthLimit / MEGABYTE);
+    }
+
+    private static String formatEta(long seconds) {
+        if (seconds < 0) {
+            return "unknown";
+        }
+        return String.format(Locale.ROOT, "%02d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+}
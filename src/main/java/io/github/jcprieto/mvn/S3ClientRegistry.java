@@ -0,0 +1,216 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.SessionData;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+class S3ClientRegistry {
+
+    private static final String SESSION_KEY = S3ClientRegistry.class.getName();
+    static final String UPLOAD_GOAL = "s3uploader";
+    static final String SYNC_GOAL = "s3sync";
+
+    private final Map<String, S3Client> clients = new LinkedHashMap<>();
+    private final Map<String, Integer> pendingExecutions;
+    private final List<PendingUpload> deferred = new ArrayList<>();
+    private final Map<String, Future<Long>> background = new LinkedHashMap<>();
+    private ExecutorService backgroundExecutor;
+    private long backgroundStartNanos;
+    private final Thread shutdownHook = new Thread(this::closeClients, "s3-client-registry-shutdown");
+    private boolean hookRegistered;
+    private boolean sessionHookInstalled;
+    private final Map<String, Consumer<ExecutionEvent>> sessionEndCallbacks = new LinkedHashMap<>();
+    private int retained;
+
+    S3ClientRegistry(Map<String, Integer> pendingExecutions) {
+        this.pendingExecutions = new HashMap<>(pendingExecutions);
+    }
+
+    static S3ClientRegistry forSession(MavenSession session, String pluginKey) {
+        SessionData data = session.getRepositorySession().getData();
+        Object registry = data.get(SESSION_KEY);
+        if (registry == null) {
+            data.set(SESSION_KEY, null, new S3ClientRegistry(expectedExecutions(session.getProjects(), pluginKey)));
+            registry = data.get(SESSION_KEY);
+        }
+        return (S3ClientRegistry) registry;
+    }
+
+    // Only s3uploader executions report back through executionFinished; an execution bound to a phase the build never
+    // reaches still keeps its module pending, which is why onSessionEnd flushes whatever the count leaves behind
+    static Map<String, Integer> expectedExecutions(List<MavenProject> projects, String pluginKey) {
+        Map<String, Integer> expected = new HashMap<>();
+        for (MavenProject project : projects) {
+            for (Plugin plugin : project.getBuildPlugins()) {
+                if (!pluginKey.equals(plugin.getKey())) {
+                    continue;
+                }
+                for (PluginExecution execution : plugin.getExecutions()) {
+                    int uploads = Collections.frequency(execution.getGoals(), UPLOAD_GOAL);
+                    if (uploads > 0) {
+                        expected.merge(project.getId(), uploads, Integer::sum);
+                    }
+                }
+            }
+        }
+        if (expected.isEmpty()) {
+            // Goal invoked from the command line: it runs once in every project of the reactor
+            for (MavenProject project : projects) {
+                expected.put(project.getId(), 1);
+            }
+        }
+        return expected;
+    }
+
+    // One callback per goal: the first execution of each goal answers for all of them
+    synchronized void onSessionEnd(MavenSession session, String goal, Consumer<ExecutionEvent> callback) {
+        MavenExecutionRequest request = session.getRequest();
+        if (request == null) {
+            return;
+        }
+        sessionEndCallbacks.putIfAbsent(goal, callback);
+        if (!sessionHookInstalled) {
+            request.setExecutionListener(new SessionEndListener(request.getExecutionListener(), this::sessionEnded));
+            sessionHookInstalled = true;
+        }
+    }
+
+    private void sessionEnded(ExecutionEvent event) {
+        List<Consumer<ExecutionEvent>> callbacks;
+        synchronized (this) {
+            callbacks = new ArrayList<>(sessionEndCallbacks.values());
+        }
+        for (Consumer<ExecutionEvent> callback : callbacks) {
+            callback.accept(event);
+        }
+    }
+
+    // s3sync holds the shared clients while it runs, so the uploader's end of reactor cannot close them under it
+    synchronized void retain() {
+        retained++;
+    }
+
+    synchronized void release() {
+        retained--;
+    }
+
+    synchronized boolean hasPendingWork() {
+        return !deferred.isEmpty() || !background.isEmpty();
+    }
+
+    synchronized S3Client client(String key, Supplier<S3Client> factory) {
+        S3Client client = clients.get(key);
+        if (client == null) {
+            client = factory.get();
+            clients.put(key, client);
+            if (!hookRegistered) {
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+                hookRegistered = true;
+            }
+        }
+        return client;
+    }
+
+    synchronized int size() {
+        return clients.size();
+    }
+
+    synchronized void defer(List<PendingUpload> uploads) {
+        deferred.addAll(uploads);
+    }
+
+    synchronized List<PendingUpload> drainDeferred() {
+        List<PendingUpload> drained = new ArrayList<>(deferred);
+        deferred.clear();
+        return drained;
+    }
+
+    synchronized void submitBackground(List<PendingUpload> uploads, int threads) {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("s3-background-upload"));
+            backgroundStartNanos = System.nanoTime();
+        }
+        for (PendingUpload upload : uploads) {
+            background.put(upload.target(), backgroundExecutor.submit(upload.task()));
+        }
+    }
+
+    synchronized Map<String, Future<Long>> drainBackground() {
+        Map<String, Future<Long>> drained = new LinkedHashMap<>(background);
+        background.clear();
+        return drained;
+    }
+
+    synchronized long backgroundStartNanos() {
+        return backgroundStartNanos;
+    }
+
+    synchronized boolean executionFinished(MavenProject project) {
+        Integer remaining = pendingExecutions.get(project.getId());
+        if (remaining == null) {
+            return false;
+        }
+        if (remaining > 1) {
+            pendingExecutions.put(project.getId(), remaining - 1);
+            return false;
+        }
+        pendingExecutions.remove(project.getId());
+        return pendingExecutions.isEmpty();
+    }
+
+    void close(Log log) {
+        int closed;
+        synchronized (this) {
+            if (backgroundExecutor != null) {
+                backgroundExecutor.shutdownNow();
+                backgroundExecutor = null;
+            }
+            if (retained > 0) {
+                return;
+            }
+            closed = closeClients();
+            if (hookRegistered) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // JVM already shutting down
+                }
+                hookRegistered = false;
+            }
+        }
+        if (closed > 0) {
+            log.info("Closed " + closed + " shared S3 client" + (closed == 1 ? "" : "s"));
+        }
+    }
+
+    private synchronized int closeClients() {
+        List<S3Client> toClose = new ArrayList<>(clients.values());
+        clients.clear();
+        for (S3Client client : toClose) {
+            try {
+                client.close();
+            } catch (RuntimeException e) {
+                // best effort: the build is over for this client
+            }
+        }
+        return toClose.size();
+    }
+}
@@ -0,0 +1,285 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import software.amazon.awssdk.checksums.SdkChecksum;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.ChecksumType;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Mojo(name = "s3download", threadSafe = true)
+public class S3Download extends AbstractS3DownloadMojo {
+
+    static final long DEFAULT_RANGE_SIZE = 8L * 1024 * 1024;
+    static final long MIN_RANGE_SIZE = 64 * 1024;
+
+    @Parameter(property = "aws.s3.rangeSize", defaultValue = "8388608")
+    private long rangeSize = DEFAULT_RANGE_SIZE;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        maybeDisableAwsSdkV1DeprecationAnnouncement();
+        validateDownloadConfiguration();
+        if (rangeSize < MIN_RANGE_SIZE) {
+            throw new MojoExecutionException("Range size must be at least " + MIN_RANGE_SIZE + " bytes (aws.s3.rangeSize)");
+        }
+        retryPolicy = newRetryPolicy();
+        String objectKey = artifactKey();
+        File target = targetFile();
+        try {
+            S3Client client = getS3Client(region.trim());
+            HeadObjectRequest headRequest = HeadObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build();
+            HeadObjectResponse head = retryPolicy.execute("headObject " + objectKey, () -> client.headObject(headRequest));
+            if (head.contentLength() == null) {
+                throw new IOException("HEAD response for " + objectKey + " has no Content-Length, cannot plan the ranges");
+            }
+            long length = head.contentLength();
+            ExpectedChecksum expected = expectedChecksum(head);
+            if (expected == null) {
+                getLog().warn("s3://" + bucket + "/" + objectKey + " has no full-object checksum, only its length will be verified");
+            } else if (matchesLocal(target, length, expected)) {
+                getLog().info(target + " already matches s3://" + bucket + "/" + objectKey + ", skipping download");
+                return;
+            }
+            long start = System.nanoTime();
+            int ranges = download(client, objectKey, head.eTag(), length, expected, target);
+            long elapsed = elapsedMillis(start);
+            getLog().info("Downloaded " + length + " bytes to " + target + " in " + ranges + " ranges, " + elapsed
+                    + " ms (" + formatRate(length, elapsed) + ")");
+        } catch (IOException e) {
+            throw new MojoFailureException("Failed to download s3://" + bucket + "/" + objectKey + " to " + target, e);
+        } finally {
+            logRetrySummary();
+            releaseS3Client();
+        }
+    }
+
+    // The sha256 metadata written with skipUnchanged wins, then a full-object SHA-256 or CRC32C. Composite multipart
+    // checksums ("...-N") describe the parts rather than the object, and compressed objects only carry the metadata
+    // hash of the uncompressed file, so both are ignored
+    static ExpectedChecksum expectedChecksum(HeadObjectResponse head) {
+        String metadataSha256 = head.metadata() == null ? null : head.metadata().get(Checksums.SHA256_METADATA_KEY);
+        if (metadataSha256 != null && head.contentEncoding() == null) {
+            return new ExpectedChecksum(ChecksumAlgorithm.SHA256, metadataSha256.toLowerCase(Locale.ROOT));
+        }
+        boolean composite = head.checksumType() == ChecksumType.COMPOSITE;
+        if (isFullObject(head.checksumSHA256(), composite)) {
+            return new ExpectedChecksum(ChecksumAlgorithm.SHA256,
+                    Checksums.toHex(Base64.getDecoder().decode(head.checksumSHA256())));
+        }
+        if (isFullObject(head.checksumCRC32C(), composite)) {
+            return new ExpectedChecksum(ChecksumAlgorithm.CRC32_C,
+                    Checksums.toHex(Base64.getDecoder().decode(head.checksumCRC32C())));
+        }
+        return null;
+    }
+
+    private static boolean isFullObject(String checksum, boolean composite) {
+        return checksum != null && !composite && !checksum.contains("-");
+    }
+
+    private static boolean matchesLocal(File target, long length, ExpectedChecksum expected) throws IOException {
+        if (!target.isFile() || target.length() != length) {
+            return false;
+        }
+        byte[] local = expected.algorithm == ChecksumAlgorithm.SHA256 ? Checksums.sha256(target) : Checksums.crc32c(target);
+        return expected.hex.equals(Checksums.toHex(local));
+    }
+
+    // Ranges are written by position into a preallocated .part file. CRC32C is computed on the bytes as they arrive and
+    // combined per range; SHA-256 needs the data in order, so each contiguous run of finished ranges is digested
+    // back from the page cache while later ranges are still downloading
+    private int download(S3Client client, String objectKey, String eTag, long length, ExpectedChecksum expected,
+                         File target) throws IOException {
+        Files.createDirectories(downloadDirectory.toPath());
+        File partial = new File(target.getPath() + ".part");
+        try (RandomAccessFile output = new RandomAccessFile(partial, "rw")) {
+            output.setLength(length);
+        }
+        int ranges = (int) ((length + rangeSize - 1) / rangeSize);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(downloadThreads, ranges)),
+                new DaemonThreadFactory("s3-download"));
+        try (FileChannel out = FileChannel.open(partial.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            RangeVerifier verifier = new RangeVerifier(expected, out, ranges, rangeSize, length);
+            List<Future<?>> futures = new ArrayList<>(ranges);
+            for (int i = 0; i < ranges; i++) {
+                int index = i;
+                long offset = i * rangeSize;
+                long size = Math.min(rangeSize, length - offset);
+                futures.add(executor.submit(() -> {
+                    long crc = retryPolicy.execute("getObject " + objectKey + " bytes " + offset + "-" + (offset + size - 1),
+                            () -> fetchRange(client, objectKey, eTag, out, offset, size, verifier.crc32c()));
+                    verifier.completed(index, crc);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            out.force(false);
+            String actual = verifier.checksum();
+            if (actual != null && !actual.equals(expected.hex)) {
+                throw new IOException(expected.algorithm + " mismatch: expected " + expected.hex + ", downloaded " + actual);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Files.deleteIfExists(partial.toPath());
+            throw new IOException("Download interrupted", e);
+        } catch (ExecutionException e) {
+            Files.deleteIfExists(partial.toPath());
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Download failed", cause);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial.toPath());
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+        Files.move(partial.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return ranges;
+    }
+
+    // If-Match pins every range to the object seen by the HEAD, so an overwrite mid-download fails instead of mixing versions
+    private long fetchRange(S3Client client, String objectKey, String eTag, FileChannel out, long offset, long size,
+                            boolean crc32c) throws IOException {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .ifMatch(eTag)
+                .range("bytes=" + offset + "-" + (offset + size - 1))
+                .build();
+        SdkChecksum checksum = crc32c ? Checksums.newChecksum(ChecksumAlgorithm.CRC32_C) : null;
+        long end = offset + size;
+        long position = offset;
+        try (ResponseInputStream<GetObjectResponse> in = client.getObject(request)) {
+            byte[] buffer = new byte[64 * 1024];
+            int bytesRead;
+            while (position < end && (bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, end - position))) != -1) {
+                if (checksum != null) {
+                    checksum.update(buffer, 0, bytesRead);
+                }
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, bytesRead);
+                while (data.hasRemaining()) {
+                    position += out.write(data, position);
+                }
+            }
+        }
+        if (position != end) {
+            throw new IOException("Range at " + offset + " of " + objectKey + " ended after " + (position - offset)
+                    + " of " + size + " bytes");
+        }
+        return checksum == null ? 0 : Checksums.crc32cValue(checksum.getChecksumBytes());
+    }
+
+    public void setRangeSize(long rangeSize) {
+        this.rangeSize = rangeSize;
+    }
+
+    static final class ExpectedChecksum {
+        final ChecksumAlgorithm algorithm;
+        final String hex;
+
+        ExpectedChecksum(ChecksumAlgorithm algorithm, String hex) {
+            this.algorithm = algorithm;
+            this.hex = hex;
+        }
+    }
+
+    private static final class RangeVerifier {
+
+        private final ChecksumAlgorithm algorithm;
+        private final FileChannel channel;
+        private final long rangeSize;
+        private final long length;
+        private final long[] crcs;
+        private final boolean[] done;
+        private final MessageDigest digest;
+        private int next;
+
+        RangeVerifier(ExpectedChecksum expected, FileChannel channel, int ranges, long rangeSize, long length) {
+            this.algorithm = expected == null ? null : expected.algorithm;
+            this.channel = channel;
+            this.rangeSize = rangeSize;
+            this.length = length;
+            this.crcs = new long[ranges];
+            this.done = new boolean[ranges];
+            this.digest = algorithm == ChecksumAlgorithm.SHA256 ? Checksums.newSha256() : null;
+        }
+
+        boolean crc32c() {
+            return algorithm == ChecksumAlgorithm.CRC32_C;
+        }
+
+        synchronized void completed(int index, long crc) throws IOException {
+            crcs[index] = crc;
+            done[index] = true;
+            if (digest == null) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (next < done.length && done[next]) {
+                long position = next * rangeSize;
+                long end = Math.min(length, position + rangeSize);
+                while (position < end) {
+                    ((Buffer) buffer).clear();
+                    ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), end - position));
+                    int bytesRead = channel.read(buffer, position);
+                    if (bytesRead == -1) {
+                        throw new IOException("Downloaded file is shorter than expected");
+                    }
+                    digest.update(buffer.array(), 0, bytesRead);
+                    position += bytesRead;
+                }
+                next++;
+            }
+        }
+
+        synchronized String checksum() {
+            if (algorithm == null) {
+                return null;
+            }
+            if (digest != null) {
+                return Checksums.toHex(digest.digest());
+            }
+            long crc = crcs.length == 0 ? 0 : crcs[0];
+            for (int i = 1; i < crcs.length; i++) {
+                crc = Checksums.crc32cCombine(crc, crcs[i], Math.min(rangeSize, length - i * rangeSize));
+            }
+            return Checksums.toHex(Checksums.crc32cBytes(crc));
+        }
+    }
+}
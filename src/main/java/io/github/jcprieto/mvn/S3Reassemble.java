@@ -0,0 +1,173 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Mojo(name = "s3reassemble", threadSafe = true)
+public class S3Reassemble extends AbstractS3DownloadMojo {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        maybeDisableAwsSdkV1DeprecationAnnouncement();
+        validateDownloadConfiguration();
+        retryPolicy = newRetryPolicy();
+        String manifestKey = artifactKey() + ChunkManifest.SUFFIX;
+        File target = targetFile();
+        try {
+            S3Client client = getS3Client(region.trim());
+            long start = System.nanoTime();
+            GetObjectRequest request = GetObjectRequest.builder().bucket(bucket).key(manifestKey).build();
+            ChunkManifest manifest = ChunkManifest.parse(retryPolicy.execute("getObject " + manifestKey,
+                    () -> client.getObjectAsBytes(request)).asByteArray());
+            getLog().info("Reassembling " + target + " from " + manifest.chunks().size() + " chunks listed in s3://"
+                    + bucket + "/" + manifestKey);
+            reassemble(client, manifest, target);
+            getLog().info("Reassembled " + manifest.size() + " bytes in " + elapsedMillis(start) + " ms");
+        } catch (IOException e) {
+            throw new MojoFailureException("Failed to reassemble " + target + " from s3://" + bucket + "/" + manifestKey, e);
+        } finally {
+            logRetrySummary();
+            releaseS3Client();
+        }
+    }
+
+    // Chunks still present in the previous copy of the file are copied locally; only the rest are downloaded
+    private void reassemble(S3Client client, ChunkManifest manifest, File target) throws IOException {
+        Map<String, ContentDefinedChunker.Chunk> local = new HashMap<>();
+        if (target.isFile()) {
+            for (ContentDefinedChunker.Chunk chunk : new ContentDefinedChunker(manifest.chunkSize())
+                    .chunk(target, Runtime.getRuntime().availableProcessors())) {
+                local.putIfAbsent(chunk.sha256, chunk);
+            }
+        }
+        Files.createDirectories(downloadDirectory.toPath());
+        File partial = new File(target.getPath() + ".part");
+        try (RandomAccessFile output = new RandomAccessFile(partial, "rw")) {
+            output.setLength(manifest.size());
+        }
+        AtomicLong downloaded = new AtomicLong();
+        AtomicLong reused = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(downloadThreads, new DaemonThreadFactory("s3-reassemble"));
+        try (FileChannel out = FileChannel.open(partial.toPath(), StandardOpenOption.WRITE);
+             FileChannel previous = local.isEmpty() ? null : FileChannel.open(target.toPath(), StandardOpenOption.READ)) {
+            List<Future<?>> futures = new ArrayList<>(manifest.chunks().size());
+            for (ContentDefinedChunker.Chunk chunk : manifest.chunks()) {
+                ContentDefinedChunker.Chunk existing = local.get(chunk.sha256);
+                futures.add(executor.submit(() -> {
+                    byte[] sha256;
+                    if (existing != null) {
+                        sha256 = copyLocal(previous, existing, out, chunk.offset);
+                        reused.addAndGet(chunk.length);
+                    } else {
+                        sha256 = download(client, manifest, chunk, out);
+                        downloaded.addAndGet(chunk.length);
+                    }
+                    if (!chunk.sha256.equalsIgnoreCase(Checksums.toHex(sha256))) {
+                        throw new IOException("Chunk " + chunk.sha256 + " failed verification");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            out.force(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Files.deleteIfExists(partial.toPath());
+            throw new IOException("Reassembly interrupted", e);
+        } catch (ExecutionException e) {
+            Files.deleteIfExists(partial.toPath());
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Reassembly failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        Files.move(partial.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        getLog().info("Downloaded " + downloaded.get() + " bytes, reused " + reused.get() + " bytes from the previous "
+                + target.getName());
+    }
+
+    // Streamed straight to the chunk's offset and hashed on the way; a retry simply rewrites the same region
+    private byte[] download(S3Client client, ChunkManifest manifest, ContentDefinedChunker.Chunk chunk, FileChannel out)
+            throws IOException {
+        GetObjectRequest request = GetObjectRequest.builder().bucket(bucket).key(manifest.chunkKey(chunk)).build();
+        return retryPolicy.execute("getObject " + request.key(), () -> {
+            try (ResponseInputStream<GetObjectResponse> in = client.getObject(request)) {
+                MessageDigest digest = Checksums.newSha256();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long written = 0;
+                int bytesRead;
+                while ((bytesRead = in.read(buffer)) != -1) {
+                    if (written + bytesRead > chunk.length) {
+                        throw new IOException("Chunk " + chunk.sha256 + " is larger than its " + chunk.length + " bytes");
+                    }
+                    digest.update(buffer, 0, bytesRead);
+                    write(out, buffer, bytesRead, chunk.offset + written);
+                    written += bytesRead;
+                }
+                if (written != chunk.length) {
+                    throw new IOException("Chunk " + chunk.sha256 + " ended after " + written + " of " + chunk.length
+                            + " bytes");
+                }
+                return digest.digest();
+            }
+        });
+    }
+
+    private static byte[] copyLocal(FileChannel previous, ContentDefinedChunker.Chunk existing, FileChannel out,
+                                    long position) throws IOException {
+        MessageDigest digest = Checksums.newSha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long copied = 0;
+        while (copied < existing.length) {
+            ((Buffer) buffer).clear();
+            ((Buffer) buffer).limit((int) Math.min(BUFFER_SIZE, existing.length - copied));
+            if (previous.read(buffer, existing.offset + copied) == -1) {
+                throw new IOException("Previous file shrank while reassembling");
+            }
+            int bytesRead = buffer.position();
+            digest.update(buffer.array(), 0, bytesRead);
+            write(out, buffer.array(), bytesRead, position + copied);
+            copied += bytesRead;
+        }
+        return digest.digest();
+    }
+
+    private static void write(FileChannel out, byte[] bytes, int length, long position) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(bytes, 0, length);
+        while (data.hasRemaining()) {
+            position += out.write(data, position);
+        }
+    }
+}
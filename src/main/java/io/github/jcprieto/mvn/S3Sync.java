@@ -0,0 +1,319 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Mojo(name = "s3sync", defaultPhase = LifecyclePhase.DEPLOY, threadSafe = true)
+public class S3Sync extends AbstractS3Mojo {
+
+    static final int DELETE_BATCH_SIZE = 1000;
+    private static final Pattern MD5_ETAG = Pattern.compile("\"?[0-9a-fA-F]{32}\"?");
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("html", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("htm", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("css", "text/css; charset=utf-8");
+        CONTENT_TYPES.put("js", "text/javascript; charset=utf-8");
+        CONTENT_TYPES.put("json", "application/json");
+        CONTENT_TYPES.put("xml", "application/xml");
+        CONTENT_TYPES.put("txt", "text/plain; charset=utf-8");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("gif", "image/gif");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("woff", "font/woff");
+        CONTENT_TYPES.put("woff2", "font/woff2");
+        CONTENT_TYPES.put("pdf", "application/pdf");
+    }
+
+    @Parameter(property = "aws.s3.sync.directory", defaultValue = "${project.reporting.outputDirectory}", required = true)
+    private File directory;
+
+    @Parameter(property = "aws.s3.sync.threads", defaultValue = "16")
+    private int syncThreads = 16;
+
+    @Parameter(property = "aws.s3.sync.deleteRemoved", defaultValue = "false")
+    private boolean deleteRemoved;
+
+    private UploadIndex index;
+    private UploadScheduler scheduler;
+    private String grantRead;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        maybeDisableAwsSdkV1DeprecationAnnouncement();
+        validateConfiguration();
+        String prefix = normalizePath(path);
+        retryPolicy = newRetryPolicy();
+        index = openUploadIndex();
+        scheduler = uploadScheduler();
+        grantRead = grantRead(cannonicalIds);
+        if (session != null && plugin != null) {
+            clientRegistry = S3ClientRegistry.forSession(session, plugin.getPluginLookupKey());
+            clientRegistry.onSessionEnd(session, S3ClientRegistry.SYNC_GOAL, this::sessionEnded);
+            clientRegistry.retain();
+        }
+        try {
+            S3Client client = getS3Client(region.trim());
+            long start = System.nanoTime();
+            Map<String, S3Object> remote = listRemote(client, prefix);
+            Map<String, File> local = listLocal(prefix);
+            getLog().info("Listed " + local.size() + " local files and " + remote.size() + " objects under s3://"
+                    + bucket + "/" + prefix + " in " + elapsedMillis(start) + " ms");
+            List<String> removed = new ArrayList<>();
+            for (String key : remote.keySet()) {
+                if (!local.containsKey(key)) {
+                    removed.add(key);
+                }
+            }
+            sync(client, local, remote);
+            if (deleteRemoved) {
+                delete(client, removed);
+            } else if (!removed.isEmpty()) {
+                getLog().info(removed.size() + " remote objects no longer exist locally (aws.s3.sync.deleteRemoved to remove them)");
+            }
+            getLog().info("Synchronized " + directory + " with s3://" + bucket + "/" + prefix + " in "
+                    + elapsedMillis(start) + " ms");
+        } catch (IOException e) {
+            throw new MojoFailureException("Failed to synchronize " + directory + " with s3://" + bucket + "/" + prefix, e);
+        } finally {
+            logRetrySummary();
+            flushUploadIndex(index);
+            releaseS3Client();
+            if (clientRegistry != null) {
+                clientRegistry.release();
+            }
+        }
+    }
+
+    // Deferred or background uploads still need the clients; the uploader's own session-end callback closes them
+    private void sessionEnded(ExecutionEvent event) {
+        if (!clientRegistry.hasPendingWork()) {
+            clientRegistry.close(getLog());
+        }
+    }
+
+    private void validateConfiguration() throws MojoExecutionException {
+        if (isBlank(bucket)) {
+            throw new MojoExecutionException("Bucket is required (aws.s3.bucket)");
+        }
+        if (isBlank(region)) {
+            throw new MojoExecutionException("Region is required (aws.s3.region)");
+        }
+        if (isBlank(path)) {
+            throw new MojoExecutionException("Path is required (aws.s3.path)");
+        }
+        if (directory == null || !directory.isDirectory()) {
+            throw new MojoExecutionException("Directory not found: " + directory + " (aws.s3.sync.directory)");
+        }
+        if (syncThreads < 1) {
+            throw new MojoExecutionException("Sync threads must be at least 1 (aws.s3.sync.threads)");
+        }
+        validateClientConfiguration();
+    }
+
+    private Map<String, S3Object> listRemote(S3Client client, String prefix) throws IOException {
+        Map<String, S3Object> objects = new TreeMap<>();
+        String continuationToken = null;
+        do {
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucket)
+                    .prefix(prefix)
+                    .continuationToken(continuationToken)
+                    .build();
+            ListObjectsV2Response response = retryPolicy.execute("listObjectsV2 " + prefix,
+                    () -> client.listObjectsV2(request));
+            for (S3Object object : response.contents()) {
+                objects.put(object.key(), object);
+            }
+            continuationToken = Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null;
+        } while (continuationToken != null);
+        return objects;
+    }
+
+    private Map<String, File> listLocal(String prefix) throws IOException {
+        Path base = directory.toPath();
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toMap(
+                            file -> buildS3Key(prefix, base.relativize(file).toString().replace('\\', '/')),
+                            Path::toFile, (first, second) -> first, LinkedHashMap::new));
+        }
+    }
+
+    private void sync(S3Client client, Map<String, File> local, Map<String, S3Object> remote)
+            throws MojoFailureException {
+        int threads = Math.max(1, Math.min(syncThreads, local.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("s3-sync"));
+        Map<String, Future<Boolean>> futures = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, File> entry : local.entrySet()) {
+                S3Object existing = remote.get(entry.getKey());
+                futures.put(entry.getKey(), executor.submit(() -> syncFile(client, entry.getKey(), entry.getValue(), existing)));
+            }
+            int uploaded = 0;
+            long bytes = 0;
+            int failed = 0;
+            Throwable firstFailure = null;
+            for (Map.Entry<String, Future<Boolean>> future : futures.entrySet()) {
+                try {
+                    if (future.getValue().get()) {
+                        uploaded++;
+                        bytes += local.get(future.getKey()).length();
+                    }
+                } catch (ExecutionException e) {
+                    failed++;
+                    if (firstFailure == null) {
+                        firstFailure = e.getCause();
+                    }
+                    getLog().error(future.getKey() + " not synchronized: " + e.getCause().getMessage());
+                }
+            }
+            getLog().info("Uploaded " + uploaded + " changed files (" + bytes + " bytes), "
+                    + (futures.size() - uploaded - failed) + " unchanged, " + failed + " failed, using " + threads
+                    + " threads");
+            if (failed > 0) {
+                throw new MojoFailureException(failed + " of " + futures.size() + " files not synchronized", firstFailure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Synchronization interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean syncFile(S3Client client, String key, File file, S3Object existing) throws IOException {
+        String indexKey = index == null ? null : uploadIndexKey(bucket, key);
+        if (existing != null && indexKey != null) {
+            UploadIndex.Entry entry = index.find(indexKey, file, null);
+            if (entry != null && entry.eTag != null && entry.eTag.equals(existing.eTag())) {
+                return false;
+            }
+        }
+        if (existing != null && isUnchanged(file, existing)) {
+            if (indexKey != null) {
+                index.record(indexKey, file, null, existing.eTag());
+            }
+            return false;
+        }
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType(file))
+                .grantRead(grantRead)
+                .build();
+        RequestBody body = RequestBody.fromFile(file);
+        PutObjectResponse response = retryPolicy.execute("putObject " + key,
+                () -> scheduler.run(directory.getPath(), () -> client.putObject(request, body)));
+        if (indexKey != null && response != null) {
+            index.record(indexKey, file, null, response.eTag());
+        }
+        getLog().debug("Uploaded s3://" + bucket + "/" + key);
+        return true;
+    }
+
+    // Single-part ETags are the MD5 of the content; for multipart or KMS-encrypted objects fall back to timestamps
+    static boolean isUnchanged(File file, S3Object existing) throws IOException {
+        if (existing.size() == null || existing.size() != file.length()) {
+            return false;
+        }
+        String eTag = existing.eTag();
+        if (eTag != null && MD5_ETAG.matcher(eTag).matches()) {
+            return eTag.replace("\"", "").equalsIgnoreCase(Checksums.toHex(Checksums.md5(file)));
+        }
+        return existing.lastModified() != null && file.lastModified() <= existing.lastModified().toEpochMilli();
+    }
+
+    // A fixed table keeps web content types identical on every OS; probing only covers the rest
+    static String contentType(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String known = dot < 0 ? null : CONTENT_TYPES.get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+        if (known != null) {
+            return known;
+        }
+        try {
+            return Files.probeContentType(file.toPath());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void delete(S3Client client, List<String> keys) throws IOException {
+        if (keys.isEmpty()) {
+            return;
+        }
+        int deleted = 0;
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            List<ObjectIdentifier> batch = keys.subList(from, Math.min(keys.size(), from + DELETE_BATCH_SIZE)).stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .collect(Collectors.toList());
+            DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                    .bucket(bucket)
+                    .delete(Delete.builder().objects(batch).quiet(true).build())
+                    .build();
+            DeleteObjectsResponse response = retryPolicy.execute("deleteObjects " + batch.size(),
+                    () -> client.deleteObjects(request));
+            for (S3Error error : response.errors()) {
+                getLog().error("Failed to delete s3://" + bucket + "/" + error.key() + ": " + error.message());
+            }
+            if (!response.errors().isEmpty()) {
+                throw new IOException(response.errors().size() + " remote objects could not be deleted");
+            }
+            deleted += batch.size();
+        }
+        getLog().info("Deleted " + deleted + " remote objects that no longer exist locally");
+    }
+
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    public void setSyncThreads(int syncThreads) {
+        this.syncThreads = syncThreads;
+    }
+
+    public void setDeleteRemoved(boolean deleteRemoved) {
+        this.deleteRemoved = deleteRemoved;
+    }
+}
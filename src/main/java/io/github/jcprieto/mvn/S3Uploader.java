@@ -1,35 +1,60 @@
 package io.github.jcprieto.mvn;
 
-import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectAclRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.StorageClass;
 
 import java.io.File;
-import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Mojo(name = "s3uploader", defaultPhase = LifecyclePhase.DEPLOY)
-public class S3Uploader extends AbstractMojo {
+@Mojo(name = "s3uploader", defaultPhase = LifecyclePhase.DEPLOY, threadSafe = true)
+public class S3Uploader extends AbstractS3Mojo {
 
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
     private MavenProject project;
@@ -43,177 +68,1161 @@ public class S3Uploader extends AbstractMojo {
     @Parameter(property = "artifact.extension", defaultValue = "jar", required = true)
     private String extension;
 
-    @Parameter(property = "aws.s3.bucket", required = true)
-    private String bucket;
+    @Parameter
+    private Destination[] destinations = new Destination[0];
 
-    @Parameter(property = "aws.s3.region", required = true)
-    private String region;
+    @Parameter(property = "aws.s3.showProgress", defaultValue = "false")
+    private boolean showProgress;
 
-    @Parameter(property = "aws.s3.path", required = true)
-    private String path;
+    @Parameter(property = "aws.s3.progressMode", defaultValue = "PERCENTAGE")
+    private String progressMode = "PERCENTAGE";
 
-    @Parameter(property = "aws.s3.accesskey", required = true)
-    private String accessKey;
+    @Parameter(property = "aws.s3.progressIntervalMillis", defaultValue = "2000")
+    private long progressIntervalMillis = ProgressTracker.DEFAULT_INTERVAL_MILLIS;
 
-    @Parameter(property = "aws.s3.secretkey", required = true)
-    private String secretKey;
+    @Parameter(property = "aws.s3.multipartThreshold", defaultValue = "104857600")
+    private long multipartThreshold = 100L * 1024 * 1024;
 
-    @Parameter(property = "aws.s3.cannonicalIds")
-    private String[] cannonicalIds = new String[0];
+    @Parameter(property = "aws.s3.partSize", defaultValue = "16777216")
+    private long partSize = 16L * 1024 * 1024;
 
-    @Parameter(property = "aws.s3.showProgress", defaultValue = "false")
-    private boolean showProgress;
+    @Parameter(property = "aws.s3.partConcurrency", defaultValue = "4")
+    private int partConcurrency = 4;
+
+    @Parameter(property = "aws.s3.transferEngine", defaultValue = "AUTO")
+    private String transferEngine = "AUTO";
+
+    @Parameter(property = "aws.s3.transferStatsFile", defaultValue = "${settings.localRepository}/.mvn-s3-upload/transfer-stats.properties")
+    private File transferStatsFile;
+
+    @Parameter(property = "aws.s3.uploadAllArtifacts", defaultValue = "false")
+    private boolean uploadAllArtifacts;
+
+    @Parameter
+    private String[] includes = new String[0];
+
+    @Parameter
+    private String[] excludes = new String[0];
+
+    @Parameter(property = "aws.s3.uploadThreads", defaultValue = "4")
+    private int uploadThreads = 4;
+
+    @Parameter(property = "aws.s3.skipUnchanged", defaultValue = "false")
+    private boolean skipUnchanged;
+
+    @Parameter(property = "aws.s3.resumableUploads", defaultValue = "false")
+    private boolean resumableUploads;
+
+    @Parameter(property = "aws.s3.checksumAlgorithm", defaultValue = "NONE")
+    private String checksumAlgorithm = "NONE";
+
+    @Parameter(property = "aws.s3.writeChecksumFile", defaultValue = "true")
+    private boolean writeChecksumFile = true;
+
+    @Parameter(property = "aws.s3.compression", defaultValue = "NONE")
+    private String compression = "NONE";
+
+    @Parameter(property = "aws.s3.deployAtEnd", defaultValue = "false")
+    private boolean deployAtEnd;
+
+    @Parameter(property = "aws.s3.asyncUpload", defaultValue = "false")
+    private boolean asyncUpload;
+
+    @Parameter(property = "aws.s3.reportFormat", defaultValue = "JSON")
+    private String reportFormat = "JSON";
+
+    @Parameter(property = "aws.s3.contentType")
+    private String contentType;
+
+    @Parameter(property = "aws.s3.cacheControl")
+    private String cacheControl;
+
+    @Parameter(property = "aws.s3.storageClass")
+    private String storageClass;
+
+    @Parameter
+    private Map<String, String> tags = new LinkedHashMap<>();
 
-    @Parameter(property = "aws.s3.disableSdkV1DeprecationAnnouncement", defaultValue = "false")
-    private boolean disableSdkV1DeprecationAnnouncement;
+    @Parameter(property = "aws.s3.legacyAcl", defaultValue = "false")
+    private boolean legacyAcl;
 
-    private S3Client s3Client;
+    @Parameter(property = "aws.s3.packDirectory")
+    private File packDirectory;
+
+    @Parameter(property = "aws.s3.packName")
+    private String packName;
+
+    @Parameter(property = "aws.s3.chunkedUpload", defaultValue = "false")
+    private boolean chunkedUpload;
+
+    @Parameter(property = "aws.s3.chunkSize", defaultValue = "1048576")
+    private int chunkSize = ContentDefinedChunker.DEFAULT_AVERAGE_SIZE;
+
+    @Parameter(property = "aws.s3.chunkPrefix")
+    private String chunkPrefix;
+
+    @Parameter(property = "aws.s3.maxBandwidth", defaultValue = "0")
+    private long maxBandwidth;
+
+    @Parameter(property = "aws.s3.bandwidthBurst", defaultValue = "0")
+    private long bandwidthBurst;
+
+    private List<Destination> targets;
+    private UploadReport report;
+    private BandwidthLimiter bandwidthLimiter;
+    private UploadScheduler scheduler;
+    private ByteBufferPool bufferPool;
+    private UploadIndex index;
+    private TransferPlanner planner;
+    private TransferStats transferStats;
 
     public void execute() throws MojoExecutionException, MojoFailureException {
         maybeDisableAwsSdkV1DeprecationAnnouncement();
+        if (session != null && plugin != null) {
+            clientRegistry = S3ClientRegistry.forSession(session, plugin.getPluginLookupKey());
+            clientRegistry.onSessionEnd(session, S3ClientRegistry.UPLOAD_GOAL, this::sessionEnded);
+        }
+        boolean completed = false;
+        try {
+            executeUpload();
+            completed = true;
+        } finally {
+            releaseS3Client();
+            if (clientRegistry != null && project != null && clientRegistry.executionFinished(project)) {
+                finishSession(completed);
+            }
+        }
+    }
+
+    // Safety net for the execution count: deferred and background uploads still queued when the session ends are
+    // flushed here, and a failure is added to the session result so the build cannot pass without them
+    private void sessionEnded(ExecutionEvent event) {
+        MavenSession endedSession = event.getSession();
+        boolean failed = endedSession != null && endedSession.getResult() != null
+                && endedSession.getResult().hasExceptions();
+        if (!clientRegistry.hasPendingWork()) {
+            clientRegistry.close(getLog());
+            return;
+        }
+        getLog().info("Build session ended with uploads still queued");
+        try {
+            finishSession(!failed);
+        } catch (MojoFailureException | RuntimeException e) {
+            getLog().error(e.getMessage());
+            if (endedSession != null && endedSession.getResult() != null) {
+                endedSession.getResult().addException(e);
+            }
+        }
+    }
+
+    private void finishSession(boolean completed) throws MojoFailureException {
+        try {
+            Map<String, Future<Long>> background = clientRegistry.drainBackground();
+            if (!background.isEmpty()) {
+                getLog().info("Waiting for " + background.size() + " background uploads");
+                try {
+                    joinUploads(background, clientRegistry.backgroundStartNanos());
+                } catch (MojoFailureException e) {
+                    if (completed) {
+                        throw e;
+                    }
+                    getLog().error(e.getMessage());
+                }
+            }
+            List<PendingUpload> deferred = clientRegistry.drainDeferred();
+            if (deferred.isEmpty()) {
+                return;
+            }
+            if (!completed || session.getResult().hasExceptions()) {
+                getLog().warn("Build failed, discarding " + deferred.size() + " deferred uploads");
+                return;
+            }
+            getLog().info("Flushing " + deferred.size() + " deferred uploads from the reactor");
+            try {
+                uploadAll(deferred);
+            } finally {
+                logRetrySummary();
+            }
+        } finally {
+            flushUploadIndex(index);
+            saveTransferStats();
+            clientRegistry.close(getLog());
+        }
+    }
+
+    private void executeUpload() throws MojoExecutionException, MojoFailureException {
         validateConfiguration();
-        path = normalizePath(path);
+        targets = resolveDestinations();
+        retryPolicy = newRetryPolicy();
+        UploadReport.Format format = UploadReport.parseFormat(reportFormat);
+        report = format == UploadReport.Format.NONE ? null : new UploadReport(new File(outputDirectory), format);
+        scheduler = uploadScheduler();
+        bandwidthLimiter = maxBandwidth > 0 ? scheduler.bandwidthLimiter(maxBandwidth, bandwidthBurst) : null;
+        if (bandwidthLimiter != null) {
+            getLog().info("Upload bandwidth limited to " + formatRate(maxBandwidth, 1000) + " (burst "
+                    + bandwidthLimiter.burstBytes() + " bytes)");
+        }
+        index = openUploadIndex();
+        planner = new TransferPlanner(TransferPlanner.Engine.parse(transferEngine), multipartThreshold, partSize,
+                partConcurrency, maxConcurrentUploads);
+        transferStats = openTransferStats();
+        if (packDirectory != null) {
+            try {
+                uploadPacked();
+            } finally {
+                logRetrySummary();
+            }
+            return;
+        }
         String ruta = outputDirectory + FileSystems.getDefault().getSeparator() + warName + "." + extension;
         getLog().info("Uploading " + project.getName() + " : " + ruta);
         File file = new File(ruta);
         if (file.exists()) {
             getLog().info("Getting artifact: " + file);
-            upload(file);
+            Map<String, File> artifacts = uploadAllArtifacts || includes.length > 0
+                    ? collectArtifacts(file)
+                    : Collections.singletonMap(file.getName(), file);
+            if (deployAtEnd && clientRegistry != null) {
+                clientRegistry.defer(toPendingUploads(artifacts));
+                getLog().info("Deferring upload of " + artifacts.size() + " artifacts to the end of the reactor build");
+                return;
+            }
+            if (asyncUpload && clientRegistry != null) {
+                clientRegistry.submitBackground(toPendingUploads(artifacts), uploadThreads);
+                getLog().info("Uploading " + artifacts.size() + " artifacts in the background");
+                return;
+            }
+            try {
+                if (artifacts.size() > 1) {
+                    uploadAll(toPendingUploads(artifacts));
+                } else {
+                    upload(file, file.getName());
+                }
+            } finally {
+                logRetrySummary();
+                flushUploadIndex(index);
+                saveTransferStats();
+                if (report != null && report.file().isFile()) {
+                    getLog().info("Upload report: " + report.file());
+                }
+            }
         } else {
             throw new MojoExecutionException("Artifact not found");
         }
     }
 
-    private void upload(File file) throws MojoFailureException, MojoExecutionException {
+    private Map<String, File> collectArtifacts(File mainArtifact) throws MojoExecutionException {
+        Map<String, File> artifacts = new LinkedHashMap<>();
+        artifacts.put(mainArtifact.getName(), mainArtifact);
+        if (uploadAllArtifacts) {
+            for (Artifact attached : project.getAttachedArtifacts()) {
+                File attachedFile = attached.getFile();
+                if (attachedFile != null && attachedFile.isFile()) {
+                    artifacts.putIfAbsent(attachedFile.getName(), attachedFile);
+                }
+            }
+            File pom = project.getFile();
+            if (pom != null && pom.isFile()) {
+                artifacts.putIfAbsent(warName + ".pom", pom);
+            }
+        }
+        if (includes.length > 0) {
+            collectFileset(artifacts);
+        }
+        return artifacts;
+    }
+
+    private void collectFileset(Map<String, File> artifacts) throws MojoExecutionException {
+        Path baseDir = new File(outputDirectory).toPath();
+        List<PathMatcher> includeMatchers = toMatchers(includes);
+        List<PathMatcher> excludeMatchers = toMatchers(excludes);
+        try (Stream<Path> files = Files.walk(baseDir)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> matchesAny(includeMatchers, baseDir.relativize(file)))
+                    .filter(file -> !matchesAny(excludeMatchers, baseDir.relativize(file)))
+                    .sorted()
+                    .forEach(file -> artifacts.putIfAbsent(
+                            baseDir.relativize(file).toString().replace('\\', '/'), file.toFile()));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to scan " + baseDir + " for artifacts", e);
+        }
+    }
+
+    private List<PathMatcher> toMatchers(String[] patterns) {
+        List<PathMatcher> matchers = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (!isBlank(pattern)) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern.trim()));
+            }
+        }
+        return matchers;
+    }
+
+    private boolean matchesAny(List<PathMatcher> matchers, Path relativePath) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<PendingUpload> toPendingUploads(Map<String, File> artifacts) {
+        List<PendingUpload> uploads = new ArrayList<>();
+        for (Map.Entry<String, File> artifact : artifacts.entrySet()) {
+            uploads.add(new PendingUpload(describeTargets(artifact.getKey()), () -> {
+                upload(artifact.getValue(), artifact.getKey());
+                return artifact.getValue().length();
+            }));
+        }
+        return uploads;
+    }
+
+    private void uploadAll(List<PendingUpload> uploads) throws MojoFailureException {
+        int threads = Math.min(uploadThreads, uploads.size());
+        getLog().info("Uploading " + uploads.size() + " artifacts with " + threads + " threads");
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("s3-upload"));
+        Map<String, Future<Long>> futures = new LinkedHashMap<>();
         try {
-            S3Client s3Client3 = getS3Client();
-            String objectKey = buildS3Key(path, file.getName());
-            PutObjectRequest request = PutObjectRequest.builder()
-                    .bucket(bucket)
-                    .key(objectKey)
-                    .build();
+            for (PendingUpload upload : uploads) {
+                futures.put(upload.target(), executor.submit(upload.task()));
+            }
+            joinUploads(futures, start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void joinUploads(Map<String, Future<Long>> futures, long startNanos) throws MojoFailureException {
+        long totalBytes = 0;
+        int failed = 0;
+        Throwable firstFailure = null;
+        try {
+            for (Map.Entry<String, Future<Long>> future : futures.entrySet()) {
+                try {
+                    totalBytes += future.getValue().get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    if (firstFailure == null) {
+                        firstFailure = e.getCause();
+                    }
+                    getLog().error(future.getKey() + " not uploaded: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Upload interrupted", e);
+        }
+        long elapsed = elapsedMillis(startNanos);
+        getLog().info("Uploaded " + (futures.size() - failed) + "/" + futures.size() + " artifacts, "
+                + totalBytes + " bytes in " + elapsed + " ms (" + formatRate(totalBytes, elapsed) + ")");
+        if (failed > 0) {
+            throw new MojoFailureException(failed + " of " + futures.size() + " artifacts not uploaded", firstFailure);
+        }
+    }
+
+    // Size and mtime answer the index without reading the file; only a miss pays for the hash
+    private boolean indexedUnchanged(File file, String fileName) {
+        for (Destination destination : targets) {
+            String objectKey = buildS3Key(destination.getPath(), fileName);
+            if (index.find(uploadIndexKey(destination.getBucket(), objectKey), file, null) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String describeTargets(String fileName) {
+        Destination first = targets.get(0);
+        String target = "s3://" + first.getBucket() + "/" + buildS3Key(first.getPath(), fileName);
+        return targets.size() == 1 ? target : target + " (+" + (targets.size() - 1) + " destinations)";
+    }
+
+    private void upload(File file, String fileName) throws MojoFailureException, MojoExecutionException {
+        File compressed = null;
+        try {
+            byte[] sha256 = null;
+            if ((skipUnchanged && !chunkedUpload) || (index != null && !indexedUnchanged(file, fileName))) {
+                long hashStart = System.nanoTime();
+                sha256 = Checksums.sha256(file);
+                getLog().info("Hashed " + fileName + " in " + elapsedMillis(hashStart) + " ms");
+            }
+            compressed = compressIfConfigured(file, fileName);
+            File source = compressed == null ? file : compressed;
+            String contentEncoding = compressed == null ? null : Compression.parse(compression).contentEncoding();
+            if (targets.size() == 1) {
+                transferTo(targets.get(0), file, fileName, source, sha256, contentEncoding, null, 0);
+            } else {
+                fanOut(file, fileName, source, sha256, contentEncoding);
+            }
+        } catch (IOException e) {
+            throw new MojoFailureException(describeTargets(fileName) + " not uploaded", e);
+        } finally {
+            if (compressed != null) {
+                try {
+                    Files.deleteIfExists(compressed.toPath());
+                } catch (IOException e) {
+                    getLog().warn("Failed to delete " + compressed + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void fanOut(File file, String fileName, File source, byte[] sha256, String contentEncoding)
+            throws MojoFailureException, IOException {
+        if (chunkedUpload || anyMultipart(source)) {
+            getLog().info("Uploading " + fileName + " to " + targets.size() + " destinations");
+            fanOut(file, fileName, source, sha256, contentEncoding, null);
+            return;
+        }
+        // The consumers of a shared read advance together, so all their request slots are taken at once
+        try (UploadScheduler.Slot ignored = scheduler.acquire(schedulerOwner(), targets.size())) {
+            getLog().info("Uploading " + fileName + " to " + targets.size() + " destinations from a single read");
+            FanOutBuffer buffer = new FanOutBuffer(source, targets.size());
+            buffer.start();
+            fanOut(file, fileName, source, sha256, contentEncoding, buffer);
+        }
+    }
+
+    private void fanOut(File file, String fileName, File source, byte[] sha256, String contentEncoding,
+                        FanOutBuffer buffer) throws MojoFailureException {
+        ExecutorService executor = Executors.newFixedThreadPool(targets.size(), new DaemonThreadFactory("s3-fan-out"));
+        Map<String, Future<Long>> futures = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < targets.size(); i++) {
+                Destination destination = targets.get(i);
+                int consumer = i;
+                futures.put(destination.toString(), executor.submit(() -> {
+                    try {
+                        transferTo(destination, file, fileName, source, sha256, contentEncoding, buffer, consumer);
+                    } finally {
+                        if (buffer != null) {
+                            buffer.release(consumer);
+                        }
+                    }
+                    return source.length();
+                }));
+            }
+            joinUploads(futures, System.nanoTime());
+        } finally {
+            executor.shutdownNow();
+            if (buffer != null) {
+                buffer.close();
+            }
+        }
+    }
+
+    private void transferTo(Destination destination, File file, String fileName, File source, byte[] sha256,
+                            String contentEncoding, FanOutBuffer buffer, int consumer)
+            throws MojoFailureException, MojoExecutionException {
+        UploadMetrics metrics = new UploadMetrics(fileName, destination.getBucket(),
+                buildS3Key(destination.getPath(), fileName), file.length());
+        try {
+            metrics.finish(transfer(destination, file, fileName, source, sha256, contentEncoding, buffer, consumer,
+                    metrics), null);
+        } catch (MojoExecutionException | MojoFailureException | RuntimeException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            metrics.finish(UploadMetrics.Status.FAILED, String.valueOf(cause.getMessage()));
+            throw e;
+        } finally {
+            recordMetrics(metrics);
+        }
+    }
+
+    private void recordMetrics(UploadMetrics metrics) {
+        if (report == null) {
+            return;
+        }
+        try {
+            report.add(metrics);
+        } catch (IOException e) {
+            getLog().warn("Failed to write upload report " + report.file() + ": " + e.getMessage());
+        }
+    }
+
+    private UploadMetrics.Status transfer(Destination destination, File file, String fileName, File source,
+                                          byte[] sha256, String contentEncoding, FanOutBuffer buffer, int consumer,
+                                          UploadMetrics metrics) throws MojoFailureException, MojoExecutionException {
+        String bucket = destination.getBucket();
+        String objectKey = buildS3Key(destination.getPath(), fileName);
+        try {
+            long clientStart = System.nanoTime();
+            S3Client s3Client3 = getS3Client(destination.getRegion());
+            metrics.clientInitMillis(elapsedMillis(clientStart));
             if (showProgress) {
                 if (file.length() <= 0) {
                     getLog().info("Artifact size is 0 bytes, skipping progress logging");
                 }
             }
+            Map<String, String> metadata = Collections.emptyMap();
+            String indexKey = index == null ? null : uploadIndexKey(bucket, objectKey);
+            if (indexKey != null && index.find(indexKey, file, sha256) != null) {
+                getLog().info("Artifact unchanged since its last upload (upload index), skipping upload: s3://"
+                        + bucket + "/" + objectKey);
+                return UploadMetrics.Status.SKIPPED_UNCHANGED;
+            }
+            if (skipUnchanged && !chunkedUpload) {
+                long compareStart = System.nanoTime();
+                boolean unchanged = isUnchanged(s3Client3, bucket, objectKey, file.length(), sha256, metrics);
+                getLog().info("Compared " + fileName + " with s3://" + bucket + "/" + objectKey + " in "
+                        + elapsedMillis(compareStart) + " ms");
+                if (unchanged) {
+                    getLog().info("Artifact unchanged, skipping upload: s3://" + bucket + "/" + objectKey);
+                    if (indexKey != null) {
+                        index.record(indexKey, file, sha256, null);
+                    }
+                    return UploadMetrics.Status.SKIPPED_UNCHANGED;
+                }
+            }
+            if (sha256 != null) {
+                metadata = Collections.singletonMap(Checksums.SHA256_METADATA_KEY, Checksums.toHex(sha256));
+            }
             getLog().info("Uploading artifact to: s3://" + bucket + "/" + objectKey);
-            RequestBody requestBody = buildRequestBody(file);
-            if (s3Client3.putObject(request, requestBody) != null) {
-                getLog().info("Artifact uploaded");
-                applyAclIfConfigured(s3Client3, file);
+            TransferPlanner.Plan plan = chunkedUpload ? null : plan(destination, source);
+            if (plan != null) {
+                getLog().info("Transfer engine: " + plan.describe());
+            }
+            metrics.transferredBytes(source.length());
+            metrics.multipart(plan != null && plan.multipart);
+            metrics.transferStarted();
+            long uploadStart = System.nanoTime();
+            String grantRead = legacyAcl ? null : grantRead(destination);
+            boolean uploaded;
+            if (chunkedUpload) {
+                uploaded = uploadChunked(s3Client3, destination, source, objectKey, metadata, grantRead, metrics);
+            } else if (plan.multipart) {
+                uploaded = uploadMultipart(s3Client3, bucket, source, objectKey, metadata, contentEncoding, grantRead,
+                        plan, metrics);
+            } else {
+                uploaded = putObject(s3Client3, bucket, source, objectKey, metadata, contentEncoding, grantRead,
+                        metrics, buffer, consumer);
+            }
+            if (uploaded) {
+                if (plan != null) {
+                    recordTransfer(destination, plan, metrics);
+                }
+                long elapsed = elapsedMillis(uploadStart);
+                getLog().info("Artifact uploaded in " + elapsed + " ms");
+                if (source != file) {
+                    getLog().info("Effective upload speed: " + formatRate(file.length(), elapsed) + " ("
+                            + formatRate(source.length(), elapsed) + " on the wire)");
+                }
+                if (legacyAcl) {
+                    applyAclIfConfigured(s3Client3, destination, objectKey, metrics);
+                } else if (grantRead != null) {
+                    getLog().info("Permissions added");
+                }
+                if (indexKey != null) {
+                    index.record(indexKey, file, sha256, metrics.eTag());
+                }
                 getLog().info("Upload succesfull");
+                return UploadMetrics.Status.UPLOADED;
             } else {
-                throw new MojoExecutionException(path + file.getName() + " not uploaded to " + bucket);
+                throw new MojoExecutionException(objectKey + " not uploaded to " + bucket);
             }
         } catch (MojoExecutionException m) {
             throw m;
         } catch (Exception e) {
-            throw new MojoFailureException(path + file.getName() + " not uploaded to " + bucket, e);
+            throw new MojoFailureException(objectKey + " not uploaded to " + bucket, e);
         }
     }
 
-    private void validateConfiguration() throws MojoExecutionException {
-        if (isBlank(bucket)) {
-            throw new MojoExecutionException("Bucket is required (aws.s3.bucket)");
+    // Only chunks missing from the shared chunk prefix are sent; the manifest next to the artifact key lists them in order
+    private boolean uploadChunked(S3Client s3Client3, Destination destination, File file, String objectKey,
+                                  Map<String, String> metadata, String grantRead, UploadMetrics metrics)
+            throws IOException {
+        String bucket = destination.getBucket();
+        ContentDefinedChunker chunker = new ContentDefinedChunker(chunkSize);
+        long chunkStart = System.nanoTime();
+        List<ContentDefinedChunker.Chunk> chunks = chunker.chunk(file, Runtime.getRuntime().availableProcessors());
+        String prefix = isBlank(chunkPrefix) ? destination.getPath() + "chunks/" : normalizePath(chunkPrefix);
+        ChunkManifest manifest = new ChunkManifest(file.length(), chunker.averageSize(), prefix, chunks);
+        getLog().info("Split " + file.getName() + " into " + chunks.size() + " content-defined chunks in "
+                + elapsedMillis(chunkStart) + " ms");
+        Set<String> existing = listChunks(s3Client3, bucket, prefix, metrics);
+        Map<String, ContentDefinedChunker.Chunk> missing = new LinkedHashMap<>();
+        Set<String> distinct = new HashSet<>();
+        long missingBytes = 0;
+        for (ContentDefinedChunker.Chunk chunk : chunks) {
+            distinct.add(chunk.sha256);
+            if (!existing.contains(manifest.chunkKey(chunk)) && missing.putIfAbsent(chunk.sha256, chunk) == null) {
+                missingBytes += chunk.length;
+            }
         }
-        if (isBlank(region)) {
-            throw new MojoExecutionException("Region is required (aws.s3.region)");
+        getLog().info(missing.size() + " of " + distinct.size() + " chunks are new (" + missingBytes + " of "
+                + file.length() + " bytes), the rest are already in s3://" + bucket + "/" + prefix);
+        metrics.transferredBytes(missingBytes);
+        uploadChunks(s3Client3, bucket, file, manifest, missing.values(), grantRead, metrics);
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey + ChunkManifest.SUFFIX)
+                .metadata(metadata)
+                .contentType("text/plain")
+                .cacheControl(trimToNull(cacheControl))
+                .tagging(buildTagging())
+                .grantRead(grantRead)
+                .build();
+        RequestBody body = RequestBody.fromBytes(manifest.toBytes());
+        PutObjectResponse response = retryPolicy.execute("putObject " + request.key(), metrics,
+                () -> scheduler.run(schedulerOwner(), () -> s3Client3.putObject(request, body)));
+        if (response == null) {
+            return false;
         }
-        if (isBlank(path)) {
-            throw new MojoExecutionException("Path is required (aws.s3.path)");
+        metrics.eTag(response.eTag());
+        getLog().info("Chunk manifest written to s3://" + bucket + "/" + request.key());
+        return true;
+    }
+
+    private Set<String> listChunks(S3Client s3Client3, String bucket, String prefix, UploadMetrics metrics)
+            throws IOException {
+        Set<String> keys = new HashSet<>();
+        String continuationToken = null;
+        do {
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucket)
+                    .prefix(prefix)
+                    .continuationToken(continuationToken)
+                    .build();
+            ListObjectsV2Response response = retryPolicy.execute("listObjectsV2 " + prefix, metrics,
+                    () -> s3Client3.listObjectsV2(request));
+            for (S3Object object : response.contents()) {
+                keys.add(object.key());
+            }
+            continuationToken = Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null;
+        } while (continuationToken != null);
+        return keys;
+    }
+
+    private void uploadChunks(S3Client s3Client3, String bucket, File file, ChunkManifest manifest,
+                              Collection<ContentDefinedChunker.Chunk> chunks, String grantRead, UploadMetrics metrics)
+            throws IOException {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(uploadThreads, chunks.size()),
+                new DaemonThreadFactory("s3-chunk-upload"));
+        try {
+            List<Future<PutObjectResponse>> futures = new ArrayList<>(chunks.size());
+            for (ContentDefinedChunker.Chunk chunk : chunks) {
+                PutObjectRequest request = PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(manifest.chunkKey(chunk))
+                        .storageClass(parseStorageClass())
+                        .tagging(buildTagging())
+                        .grantRead(grantRead)
+                        .build();
+                FileRegionContentProvider provider = new FileRegionContentProvider(file, chunk.offset, chunk.length,
+                        null, null, metrics, bandwidthLimiter);
+                RequestBody body = RequestBody.fromContentProvider(provider, chunk.length, "application/octet-stream");
+                futures.add(executor.submit(() -> retryPolicy.execute("putObject " + request.key(), metrics,
+                        () -> scheduler.run(schedulerOwner(), () -> s3Client3.putObject(request, body)))));
+            }
+            for (Future<PutObjectResponse> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Chunk upload interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Chunk upload failed", cause);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    private boolean isBlank(String value) {
-        return value == null || value.trim().isEmpty();
+    private void uploadPacked() throws MojoFailureException {
+        Compression selected = Compression.parse(compression);
+        String objectName = isBlank(packName) ? packDirectory.getName() + ".tar" + selected.extension() : packName.trim();
+        for (Destination destination : targets) {
+            streamPacked(destination, objectName, selected);
+        }
     }
 
-    private String normalizePath(String value) {
-        String normalized = value.trim().replace('\\', '/');
-        if (!normalized.endsWith("/")) {
-            normalized = normalized + "/";
+    // The tar is produced while it is uploaded: parts are staged in pooled direct buffers and no temp file is written
+    private void streamPacked(Destination destination, String objectName, Compression selected)
+            throws MojoFailureException {
+        String objectKey = buildS3Key(destination.getPath(), objectName);
+        UploadMetrics metrics = new UploadMetrics(objectName, destination.getBucket(), objectKey, 0);
+        OutputStream out = null;
+        StreamingMultipartUpload upload = null;
+        try {
+            S3Client s3Client3 = getS3Client(destination.getRegion());
+            getLog().info("Packing " + packDirectory + " into s3://" + destination.getBucket() + "/" + objectKey);
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .bucket(destination.getBucket())
+                    .key(objectKey)
+                    .contentType(trimToNull(contentType))
+                    .cacheControl(trimToNull(cacheControl))
+                    .storageClass(parseStorageClass())
+                    .tagging(buildTagging())
+                    .grantRead(legacyAcl ? null : grantRead(destination))
+                    .build();
+            upload = new StreamingMultipartUpload(s3Client3, getLog(), request, bufferPool(), partConcurrency,
+                    retryPolicy);
+            upload.setMetrics(metrics);
+            upload.setBandwidthLimiter(bandwidthLimiter);
+            upload.setScheduler(scheduler, schedulerOwner());
+            metrics.transferStarted();
+            long start = System.nanoTime();
+            out = selected.open(upload);
+            long files = TarPacker.pack(packDirectory.toPath(), out);
+            out.close();
+            long elapsed = elapsedMillis(start);
+            metrics.bytes(upload.bytes());
+            metrics.multipart(upload.partCount() > 0);
+            metrics.eTag(upload.eTag());
+            getLog().info("Streamed " + files + " files, " + upload.bytes() + " bytes in "
+                    + Math.max(1, upload.partCount()) + " parts in " + elapsed + " ms ("
+                    + formatRate(upload.bytes(), elapsed) + ")");
+            if (legacyAcl) {
+                applyAclIfConfigured(s3Client3, destination, objectKey, metrics);
+            }
+            metrics.finish(UploadMetrics.Status.UPLOADED, null);
+        } catch (IOException | RuntimeException e) {
+            if (upload != null) {
+                upload.abort();
+            }
+            closeQuietly(out);
+            metrics.finish(UploadMetrics.Status.FAILED, String.valueOf(e.getMessage()));
+            throw new MojoFailureException(objectKey + " not uploaded to " + destination.getBucket(), e);
+        } finally {
+            recordMetrics(metrics);
         }
-        return normalized;
     }
 
-    private void applyAclIfConfigured(S3Client s3Client3, File file) {
-        if (cannonicalIds.length == 0) {
+    private synchronized ByteBufferPool bufferPool() {
+        if (bufferPool == null) {
+            int bufferSize = (int) Math.min(Math.max(partSize, MultipartUploader.MIN_PART_SIZE), Integer.MAX_VALUE - 8);
+            bufferPool = new ByteBufferPool(partConcurrency + 1, bufferSize);
+        }
+        return bufferPool;
+    }
+
+    private void closeQuietly(OutputStream out) {
+        if (out == null) {
             return;
         }
-        String objectKey = buildS3Key(path, file.getName());
-        List<String> canonicalIds = new ArrayList<>();
-        for (String cannonicalId : cannonicalIds) {
-            if (cannonicalId == null) {
-                continue;
-            }
-            String trimmed = cannonicalId.trim();
-            if (!trimmed.isEmpty()) {
-                canonicalIds.add(trimmed);
+        try {
+            out.close();
+        } catch (IOException | RuntimeException e) {
+            getLog().debug("Failed to close aborted stream: " + e.getMessage());
+        }
+    }
+
+    private File compressIfConfigured(File file, String fileName) throws IOException {
+        Compression selected = Compression.parse(compression);
+        if (selected == Compression.NONE || file.length() == 0) {
+            return null;
+        }
+        if (Compression.isAlreadyCompressed(fileName)) {
+            getLog().info(fileName + " is already compressed, uploading as is");
+            return null;
+        }
+        File directory = new File(outputDirectory, "s3-upload-compressed");
+        Files.createDirectories(directory.toPath());
+        File target = File.createTempFile(new File(fileName).getName() + ".", "." + selected.contentEncoding(), directory);
+        long start = System.nanoTime();
+        long compressedLength;
+        try {
+            compressedLength = selected.compress(file, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target.toPath());
+            throw e;
+        }
+        long length = file.length();
+        getLog().info(String.format(Locale.ROOT, "Compressed %s with %s: %d -> %d bytes (ratio %.2f, %.1f%% smaller) in %d ms",
+                fileName, selected, length, compressedLength, (double) length / Math.max(1, compressedLength),
+                100.0 * (length - compressedLength) / length, elapsedMillis(start)));
+        if (compressedLength >= length) {
+            getLog().info("Compression does not reduce " + fileName + ", uploading as is");
+            Files.deleteIfExists(target.toPath());
+            return null;
+        }
+        return target;
+    }
+
+    private boolean putObject(S3Client s3Client3, String bucket, File file, String objectKey,
+                              Map<String, String> metadata, String contentEncoding, String grantRead,
+                              UploadMetrics metrics, FanOutBuffer buffer, int consumer) throws IOException {
+        ChecksumAlgorithm algorithm = Checksums.parseAlgorithm(checksumAlgorithm);
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .metadata(metadata)
+                .contentEncoding(contentEncoding)
+                .contentType(trimToNull(contentType))
+                .cacheControl(trimToNull(cacheControl))
+                .storageClass(parseStorageClass())
+                .tagging(buildTagging())
+                .grantRead(grantRead)
+                .checksumAlgorithm(algorithm)
+                .build();
+        FileRegionContentProvider provider = buildContentProvider(file, algorithm, metrics, buffer != null);
+        if (buffer != null) {
+            provider.shareFirstStream(buffer, consumer);
+        }
+        RequestBody requestBody = provider == null
+                ? RequestBody.fromFile(file.toPath())
+                : RequestBody.fromContentProvider(provider, file.length(), "application/octet-stream");
+        PutObjectResponse response = retryPolicy.execute("putObject " + objectKey, metrics,
+                () -> buffer == null
+                        ? scheduler.run(schedulerOwner(), () -> sendObject(s3Client3, request, requestBody, metrics))
+                        : sendObject(s3Client3, request, requestBody, metrics));
+        if (response == null) {
+            return false;
+        }
+        metrics.eTag(response.eTag());
+        byte[] computed = provider == null ? null : provider.checksumBytes();
+        if (computed != null) {
+            String remote = algorithm == ChecksumAlgorithm.SHA256 ? response.checksumSHA256() : response.checksumCRC32C();
+            if (remote != null && !remote.equals(Checksums.toBase64(computed))) {
+                throw new IOException("Checksum mismatch for " + objectKey + ": local " + Checksums.toBase64(computed)
+                        + ", remote " + remote);
             }
+            writeChecksumFile(file, algorithm, computed, contentEncoding);
+        }
+        return true;
+    }
+
+    // Timed inside the scheduler slot, like multipart parts, so queueing and backoff count neither against the link
+    // nor in the request latency, which is recorded once per attempt
+    private PutObjectResponse sendObject(S3Client s3Client3, PutObjectRequest request, RequestBody requestBody,
+                                         UploadMetrics metrics) {
+        long start = System.nanoTime();
+        try {
+            PutObjectResponse response = s3Client3.putObject(request, requestBody);
+            metrics.wireTime(requestBody.optionalContentLength().orElse(0L), System.nanoTime() - start);
+            return response;
+        } finally {
+            metrics.requestCompleted(start);
         }
-        if (canonicalIds.isEmpty()) {
-            getLog().warn("Skipping ACL update: canonicalIds is empty after trimming");
+    }
+
+    private void writeChecksumFile(File file, ChecksumAlgorithm algorithm, byte[] checksum, String contentEncoding)
+            throws IOException {
+        if (contentEncoding != null) {
+            getLog().info(algorithm + " checksum of the " + contentEncoding + " object: " + Checksums.toHex(checksum));
             return;
         }
-        PutObjectAclRequest putObjectAclRequest = PutObjectAclRequest.builder()
+        getLog().info(algorithm + " checksum: " + Checksums.toHex(checksum));
+        if (writeChecksumFile) {
+            Checksums.writeSidecar(file, algorithm, checksum);
+        }
+    }
+
+    private boolean isUnchanged(S3Client s3Client3, String bucket, String objectKey, long length, byte[] sha256,
+                                UploadMetrics metrics) throws IOException {
+        HeadObjectRequest request = HeadObjectRequest.builder()
                 .bucket(bucket)
                 .key(objectKey)
-                .grantRead(buildGrantReadHeader(canonicalIds))
+                .checksumMode(ChecksumMode.ENABLED)
                 .build();
-        s3Client3.putObjectAcl(putObjectAclRequest);
-        getLog().info("Permissions added");
+        HeadObjectResponse head;
+        try {
+            head = retryPolicy.execute("headObject " + objectKey, metrics, () -> s3Client3.headObject(request));
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+        if (head == null || head.contentLength() == null) {
+            return false;
+        }
+        if (head.contentEncoding() == null && head.contentLength() != length) {
+            return false;
+        }
+        String storedHex = head.metadata() == null ? null : head.metadata().get(Checksums.SHA256_METADATA_KEY);
+        if (storedHex != null) {
+            return storedHex.equalsIgnoreCase(Checksums.toHex(sha256));
+        }
+        return Checksums.toBase64(sha256).equals(head.checksumSHA256());
     }
 
-    private String buildS3Key(String normalizedPath, String fileName) {
-        String base = normalizedPath == null ? "" : normalizedPath;
-        return base + fileName;
+    private TransferPlanner.Plan plan(Destination destination, File file) {
+        TransferStats.Sample sample = transferStats == null ? null : transferStats.find(transferStatsKey(destination));
+        return planner.plan(file.length(), sample);
     }
 
-    private String buildGrantReadHeader(List<String> canonicalIds) {
-        return canonicalIds.stream()
-                .map(id -> "id=\"" + id + "\"")
-                .collect(Collectors.joining(","));
+    private boolean anyMultipart(File file) {
+        for (Destination destination : targets) {
+            if (plan(destination, file).multipart) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private RequestBody buildRequestBody(File file) {
-        if (!showProgress || file.length() <= 0) {
-            return RequestBody.fromFile(file.toPath());
+    private String transferStatsKey(Destination destination) {
+        return isBlank(endpoint) ? "region." + destination.getRegion() : endpoint.trim();
+    }
+
+    // Throttled uploads measure the limiter rather than the network, so they are not recorded
+    // Retried uploads measure backoff and failures rather than the link, so they are not recorded
+    private void recordTransfer(Destination destination, TransferPlanner.Plan plan, UploadMetrics metrics) {
+        if (transferStats == null || bandwidthLimiter != null || metrics.retries() > 0) {
+            return;
+        }
+        if (plan.multipart) {
+            transferStats.recordMultipart(transferStatsKey(destination), metrics.streamBytesPerSecond(),
+                    metrics.wireBytes(), metrics.wireNanos(), plan.concurrency);
+        } else {
+            transferStats.recordSingle(transferStatsKey(destination), metrics.wireBytes(), metrics.wireNanos());
         }
-        ProgressTracker tracker = new ProgressTracker(getLog(), file.length());
-        return RequestBody.fromContentProvider(() -> openProgressInputStream(file, tracker), file.length(), "application/octet-stream");
     }
 
-    private InputStream openProgressInputStream(File file, ProgressTracker tracker) {
+    private TransferStats openTransferStats() {
+        if (transferStatsFile == null) {
+            return null;
+        }
         try {
-            return new ProgressInputStream(Files.newInputStream(file.toPath()), tracker);
+            return TransferStats.open(transferStatsFile);
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to open artifact for upload: " + file, e);
+            getLog().warn("Failed to read transfer stats " + transferStatsFile + ": " + e.getMessage());
+            return null;
         }
     }
 
-    private S3Client getS3Client() {
-        if (s3Client != null) {
-            return s3Client;
+    private void saveTransferStats() {
+        if (transferStats == null) {
+            return;
         }
-        AwsBasicCredentials awsCreds = AwsBasicCredentials.builder()
-                .accessKeyId(accessKey)
-                .secretAccessKey(secretKey)
-                .build();
-        AwsCredentialsProvider awsCredentialsProvider = StaticCredentialsProvider.create(awsCreds);
-        return S3Client.builder()
-                .credentialsProvider(awsCredentialsProvider)
-                .region(Region.of(region))
+        try {
+            transferStats.save();
+        } catch (IOException e) {
+            getLog().warn("Failed to write transfer stats " + transferStats.file() + ": " + e.getMessage());
+        }
+    }
+
+    private boolean uploadMultipart(S3Client s3Client3, String bucket, File file, String objectKey,
+                                    Map<String, String> metadata, String contentEncoding, String grantRead,
+                                    TransferPlanner.Plan plan, UploadMetrics metrics) throws IOException {
+        long length = file.length();
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .metadata(metadata)
+                .contentEncoding(contentEncoding)
+                .contentType(trimToNull(contentType))
+                .cacheControl(trimToNull(cacheControl))
+                .storageClass(parseStorageClass())
+                .tagging(buildTagging())
+                .grantRead(grantRead)
                 .build();
+        ProgressTracker tracker = showProgress && length > 0 ? newProgressTracker(length) : null;
+        ChecksumAlgorithm algorithm = Checksums.parseAlgorithm(checksumAlgorithm);
+        File checkpointFile = resumableUploads ? checkpointFile(bucket, objectKey) : null;
+        long uploadPartSize = plan.partSize;
+        // A tuned part size drifts between runs; an interrupted upload can only resume with the parts it started with
+        UploadCheckpoint previous = checkpointFile == null ? null : UploadCheckpoint.load(checkpointFile);
+        if (previous != null && previous.partSize() != uploadPartSize) {
+            getLog().info("Keeping the " + previous.partSize() + " byte parts of the interrupted upload to resume it");
+            uploadPartSize = previous.partSize();
+        }
+        MultipartUploader uploader = new MultipartUploader(s3Client3, getLog(), uploadPartSize, plan.concurrency, algorithm,
+                retryPolicy);
+        uploader.setMetrics(metrics);
+        uploader.setBandwidthLimiter(bandwidthLimiter);
+        uploader.setScheduler(scheduler, schedulerOwner());
+        CompleteMultipartUploadResponse response = uploader.upload(request, file, tracker, checkpointFile);
+        if (response == null) {
+            return false;
+        }
+        metrics.streamBytesPerSecond(uploader.streamBytesPerSecond());
+        metrics.wireTime(uploader.sentBytes(), uploader.activeNanos());
+        metrics.eTag(response.eTag());
+        if (uploader.objectChecksum() != null) {
+            writeChecksumFile(file, algorithm, uploader.objectChecksum(), contentEncoding);
+        } else if (algorithm != null) {
+            getLog().info("Parts verified with " + algorithm + "; a full-object checksum file requires CRC32C for multipart uploads");
+        }
+        return true;
+    }
+
+    private String schedulerOwner() {
+        return project != null && project.getId() != null ? project.getId() : String.valueOf(outputDirectory);
+    }
+
+    private File checkpointFile(String bucket, String objectKey) {
+        String name = (bucket + "_" + objectKey).replaceAll("[^A-Za-z0-9._-]", "_");
+        return new File(new File(outputDirectory, "s3-upload-checkpoints"), name + ".properties");
+    }
+
+    private void validateConfiguration() throws MojoExecutionException {
+        if (destinations.length == 0) {
+            if (isBlank(bucket)) {
+                throw new MojoExecutionException("Bucket is required (aws.s3.bucket)");
+            }
+            if (isBlank(region)) {
+                throw new MojoExecutionException("Region is required (aws.s3.region)");
+            }
+            if (isBlank(path)) {
+                throw new MojoExecutionException("Path is required (aws.s3.path)");
+            }
+        }
+        for (Destination destination : destinations) {
+            if (destination == null || isBlank(destination.getBucket())) {
+                throw new MojoExecutionException("Every destination requires a bucket");
+            }
+            if (isBlank(destination.getRegion()) && isBlank(region)) {
+                throw new MojoExecutionException("Region is required for destination " + destination.getBucket()
+                        + " (or aws.s3.region)");
+            }
+            if (isBlank(destination.getPath()) && isBlank(path)) {
+                throw new MojoExecutionException("Path is required for destination " + destination.getBucket()
+                        + " (or aws.s3.path)");
+            }
+        }
+        try {
+            Checksums.parseAlgorithm(checksumAlgorithm);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage() + " (aws.s3.checksumAlgorithm: NONE, CRC32C or SHA256)");
+        }
+        try {
+            parseProgressMode();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new MojoExecutionException("Unsupported progress mode: " + progressMode
+                    + " (aws.s3.progressMode: PERCENTAGE or THROUGHPUT)");
+        }
+        try {
+            UploadReport.parseFormat(reportFormat);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage() + " (aws.s3.reportFormat: JSON, CSV or NONE)");
+        }
+        Compression selected;
+        try {
+            selected = Compression.parse(compression);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage() + " (aws.s3.compression: NONE, GZIP or ZSTD)");
+        }
+        if (!selected.isAvailable()) {
+            throw new MojoExecutionException("zstd compression requires com.github.luben:zstd-jni in the plugin dependencies");
+        }
+        if (resumableUploads && selected != Compression.NONE) {
+            // The compressed copy is rewritten on every run, so a checkpoint could never prove the parts still match
+            throw new MojoExecutionException("Resumable uploads cannot be combined with compression"
+                    + " (aws.s3.resumableUploads, aws.s3.compression)");
+        }
+        if (chunkedUpload) {
+            if (selected != Compression.NONE) {
+                throw new MojoExecutionException("Chunked uploads cannot be combined with compression"
+                        + " (aws.s3.chunkedUpload, aws.s3.compression)");
+            }
+            if (legacyAcl) {
+                throw new MojoExecutionException("Chunked uploads send ACL grants with each request and cannot use"
+                        + " aws.s3.legacyAcl");
+            }
+            if (chunkSize < ContentDefinedChunker.MIN_AVERAGE_SIZE || chunkSize > ContentDefinedChunker.MAX_AVERAGE_SIZE) {
+                throw new MojoExecutionException("Chunk size must be between " + ContentDefinedChunker.MIN_AVERAGE_SIZE
+                        + " and " + ContentDefinedChunker.MAX_AVERAGE_SIZE + " bytes (aws.s3.chunkSize)");
+            }
+        }
+        if (packDirectory != null && !packDirectory.isDirectory()) {
+            throw new MojoExecutionException("Directory to pack not found: " + packDirectory + " (aws.s3.packDirectory)");
+        }
+        if (uploadThreads < 1) {
+            throw new MojoExecutionException("Upload threads must be at least 1 (aws.s3.uploadThreads)");
+        }
+        if (partConcurrency < 1) {
+            throw new MojoExecutionException("Part concurrency must be at least 1 (aws.s3.partConcurrency)");
+        }
+        try {
+            TransferPlanner.Engine.parse(transferEngine);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage() + " (aws.s3.transferEngine: AUTO, SINGLE or MULTIPART)");
+        }
+        validateClientConfiguration();
+        if (maxBandwidth < 0 || bandwidthBurst < 0) {
+            throw new MojoExecutionException("Bandwidth limit and burst cannot be negative"
+                    + " (aws.s3.maxBandwidth, aws.s3.bandwidthBurst)");
+        }
+        if (parseStorageClass() == StorageClass.UNKNOWN_TO_SDK_VERSION) {
+            throw new MojoExecutionException("Unsupported storage class: " + storageClass + " (aws.s3.storageClass)");
+        }
     }
 
-    private void maybeDisableAwsSdkV1DeprecationAnnouncement() {
-        if (!disableSdkV1DeprecationAnnouncement) {
+    private List<Destination> resolveDestinations() {
+        List<Destination> resolved = new ArrayList<>();
+        if (destinations.length == 0) {
+            resolved.add(new Destination(bucket.trim(), region.trim(), normalizePath(path), cannonicalIds));
+        }
+        for (Destination destination : destinations) {
+            resolved.add(new Destination(destination.getBucket().trim(),
+                    isBlank(destination.getRegion()) ? region.trim() : destination.getRegion().trim(),
+                    normalizePath(isBlank(destination.getPath()) ? path : destination.getPath()),
+                    destination.getCannonicalIds() == null ? cannonicalIds : destination.getCannonicalIds()));
+        }
+        return resolved;
+    }
+
+    private void applyAclIfConfigured(S3Client s3Client3, Destination destination, String objectKey,
+                                      UploadMetrics metrics) throws IOException {
+        String grantRead = grantRead(destination);
+        if (grantRead == null) {
             return;
         }
-        if (!"true".equalsIgnoreCase(System.getProperty("aws.java.v1.disableDeprecationAnnouncement"))) {
-            System.setProperty("aws.java.v1.disableDeprecationAnnouncement", "true");
+        PutObjectAclRequest putObjectAclRequest = PutObjectAclRequest.builder()
+                .bucket(destination.getBucket())
+                .key(objectKey)
+                .grantRead(grantRead)
+                .build();
+        retryPolicy.execute("putObjectAcl " + objectKey, metrics, () -> s3Client3.putObjectAcl(putObjectAclRequest));
+        getLog().info("Permissions added");
+    }
+
+    private String grantRead(Destination destination) {
+        return grantRead(destination.getCannonicalIds());
+    }
+
+    private StorageClass parseStorageClass() {
+        String value = trimToNull(storageClass);
+        return value == null ? null : StorageClass.fromValue(value.toUpperCase(Locale.ROOT));
+    }
+
+    private String buildTagging() {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        return tags.entrySet().stream()
+                .map(tag -> urlEncode(tag.getKey()) + "=" + urlEncode(tag.getValue() == null ? "" : tag.getValue()))
+                .collect(Collectors.joining("&"));
+    }
+
+    private static String urlEncode(String value) {
+        try {
+            return URLEncoder.encode(value.trim(), "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ProgressTracker newProgressTracker(long length) {
+        return new ProgressTracker(getLog(), length, parseProgressMode(), progressIntervalMillis, maxBandwidth);
+    }
+
+    private ProgressTracker.Mode parseProgressMode() {
+        return ProgressTracker.Mode.valueOf(progressMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private FileRegionContentProvider buildContentProvider(File file, ChecksumAlgorithm algorithm, UploadMetrics metrics,
+                                                           boolean required) {
+        boolean trackProgress = showProgress && file.length() > 0;
+        if (!required && !trackProgress && algorithm == null && report == null && bandwidthLimiter == null) {
+            return null;
         }
+        ProgressTracker tracker = trackProgress ? newProgressTracker(file.length()) : null;
+        return new FileRegionContentProvider(file, 0, file.length(), algorithm, tracker, metrics, bandwidthLimiter);
+    }
+
+    public void setProject(MavenProject project) {
+        this.project = project;
     }
 
     public void setOutputDirectory(String outputDirectory) {
@@ -228,90 +1237,136 @@ public class S3Uploader extends AbstractMojo {
         this.extension = extension;
     }
 
-    public void setAccessKey(String accessKey) {
-        this.accessKey = accessKey;
+    public void setDestinations(Destination[] destinations) {
+        this.destinations = destinations;
     }
 
-    public void setSecretKey(String secretKey) {
-        this.secretKey = secretKey;
+    public void setShowProgress(boolean showProgress) {
+        this.showProgress = showProgress;
     }
 
-    public void setRegion(String region) {
-        this.region = region;
+    public void setProgressMode(String progressMode) {
+        this.progressMode = progressMode;
     }
 
-    public void setCannonicalIds(String[] cannonicalIds) {
-        this.cannonicalIds = cannonicalIds;
+    public void setProgressIntervalMillis(long progressIntervalMillis) {
+        this.progressIntervalMillis = progressIntervalMillis;
     }
 
-    public void setBucket(String bucket) {
-        this.bucket = bucket;
+    public void setMultipartThreshold(long multipartThreshold) {
+        this.multipartThreshold = multipartThreshold;
     }
 
-    public void setPath(String path) {
-        this.path = path;
+    public void setPartSize(long partSize) {
+        this.partSize = partSize;
     }
 
-    private static class ProgressTracker {
-        private final org.apache.maven.plugin.logging.Log log;
-        private final long totalBytes;
-        private final AtomicLong transferredBytes = new AtomicLong(0);
-        private final AtomicInteger lastPercentageEmitted = new AtomicInteger(0);
+    public void setPartConcurrency(int partConcurrency) {
+        this.partConcurrency = partConcurrency;
+    }
 
-        private ProgressTracker(org.apache.maven.plugin.logging.Log log, long totalBytes) {
-            this.log = log;
-            this.totalBytes = totalBytes;
-        }
+    public void setTransferEngine(String transferEngine) {
+        this.transferEngine = transferEngine;
+    }
 
-        private void onBytesRead(int bytesRead) {
-            if (bytesRead <= 0) {
-                return;
-            }
-            long current = Math.min(transferredBytes.addAndGet(bytesRead), totalBytes);
-            int percentage = (int) Math.min((current * 100) / totalBytes, 100);
-            if (percentage >= lastPercentageEmitted.get() + 10 || current == totalBytes) {
-                lastPercentageEmitted.set(percentage);
-                log.info("Upload progress: " + percentage + "% (" + current + "/" + totalBytes + " bytes)");
-            }
-        }
+    public void setTransferStatsFile(File transferStatsFile) {
+        this.transferStatsFile = transferStatsFile;
     }
 
-    private static class ProgressInputStream extends FilterInputStream {
-        private final ProgressTracker tracker;
+    public void setUploadAllArtifacts(boolean uploadAllArtifacts) {
+        this.uploadAllArtifacts = uploadAllArtifacts;
+    }
 
-        private ProgressInputStream(InputStream in, ProgressTracker tracker) {
-            super(in);
-            this.tracker = tracker;
-        }
+    public void setIncludes(String[] includes) {
+        this.includes = includes;
+    }
 
-        @Override
-        public int read() throws IOException {
-            int value = super.read();
-            if (value >= 0) {
-                tracker.onBytesRead(1);
-            }
-            return value;
-        }
+    public void setExcludes(String[] excludes) {
+        this.excludes = excludes;
+    }
 
-        @Override
-        public int read(byte[] buffer, int offset, int length) throws IOException {
-            int bytesRead = super.read(buffer, offset, length);
-            if (bytesRead > 0) {
-                tracker.onBytesRead(bytesRead);
-            }
-            return bytesRead;
-        }
+    public void setUploadThreads(int uploadThreads) {
+        this.uploadThreads = uploadThreads;
     }
 
-    public void setShowProgress(boolean showProgress) {
-        this.showProgress = showProgress;
+    public void setSkipUnchanged(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    public void setResumableUploads(boolean resumableUploads) {
+        this.resumableUploads = resumableUploads;
+    }
+
+    public void setChecksumAlgorithm(String checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
+    }
+
+    public void setWriteChecksumFile(boolean writeChecksumFile) {
+        this.writeChecksumFile = writeChecksumFile;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    public void setDeployAtEnd(boolean deployAtEnd) {
+        this.deployAtEnd = deployAtEnd;
+    }
+
+    public void setAsyncUpload(boolean asyncUpload) {
+        this.asyncUpload = asyncUpload;
+    }
+
+    public void setReportFormat(String reportFormat) {
+        this.reportFormat = reportFormat;
     }
 
-    public void setDisableSdkV1DeprecationAnnouncement(boolean disableSdkV1DeprecationAnnouncement) {
-        this.disableSdkV1DeprecationAnnouncement = disableSdkV1DeprecationAnnouncement;
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
     }
 
-    public void setS3Client(S3Client s3Client) {
-        this.s3Client = s3Client;
+    public void setCacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
     }
+
+    public void setStorageClass(String storageClass) {
+        this.storageClass = storageClass;
+    }
+
+    public void setTags(Map<String, String> tags) {
+        this.tags = tags;
+    }
+
+    public void setLegacyAcl(boolean legacyAcl) {
+        this.legacyAcl = legacyAcl;
+    }
+
+    public void setPackDirectory(File packDirectory) {
+        this.packDirectory = packDirectory;
+    }
+
+    public void setPackName(String packName) {
+        this.packName = packName;
+    }
+
+    public void setChunkedUpload(boolean chunkedUpload) {
+        this.chunkedUpload = chunkedUpload;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void setChunkPrefix(String chunkPrefix) {
+        this.chunkPrefix = chunkPrefix;
+    }
+
+    public void setMaxBandwidth(long maxBandwidth) {
+        this.maxBandwidth = maxBandwidth;
+    }
+
+    public void setBandwidthBurst(long bandwidthBurst) {
+        this.bandwidthBurst = bandwidthBurst;
+    }
+
 }
@@ -0,0 +1,330 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.logging.Log;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class StreamingMultipartUpload extends OutputStream {
+
+    private final S3Client s3Client;
+    private final Log log;
+    private final PutObjectRequest request;
+    private final ByteBufferPool pool;
+    private final UploadRetryPolicy retryPolicy;
+    private final ExecutorService executor;
+    private final List<Future<CompletedPart>> parts = new ArrayList<>();
+    private UploadMetrics metrics;
+    private BandwidthLimiter bandwidthLimiter;
+    private UploadScheduler scheduler;
+    private String schedulerOwner;
+    private ByteBuffer current;
+    private String uploadId;
+    private long bytes;
+    private String eTag;
+    private volatile Throwable failure;
+    private boolean finished;
+
+    StreamingMultipartUpload(S3Client s3Client, Log log, PutObjectRequest request, ByteBufferPool pool,
+                             int concurrency, UploadRetryPolicy retryPolicy) {
+        this.s3Client = s3Client;
+        this.log = log;
+        this.request = request;
+        this.pool = pool;
+        this.retryPolicy = retryPolicy;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), new DaemonThreadFactory("s3-stream-part"));
+    }
+
+    void setMetrics(UploadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    void setBandwidthLimiter(BandwidthLimiter bandwidthLimiter) {
+        this.bandwidthLimiter = bandwidthLimiter;
+    }
+
+    void setScheduler(UploadScheduler scheduler, String owner) {
+        this.scheduler = scheduler;
+        this.schedulerOwner = owner;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    int partCount() {
+        return parts.size();
+    }
+
+    String eTag() {
+        return eTag;
+    }
+
+    long transfer(InputStream in) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) != -1) {
+            write(buffer, 0, bytesRead);
+            total += bytesRead;
+        }
+        return total;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        checkOpen();
+        while (length > 0) {
+            if (current == null) {
+                current = pool.acquire();
+            }
+            int chunk = Math.min(length, current.remaining());
+            current.put(data, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+            bytes += chunk;
+            if (!current.hasRemaining()) {
+                submitPart();
+            }
+        }
+    }
+
+    // Closing completes the upload; after a failure the caller aborts it instead, and close becomes a no-op
+    @Override
+    public void close() throws IOException {
+        if (finished) {
+            return;
+        }
+        try {
+            checkOpen();
+            if (uploadId == null) {
+                putSingle();
+            } else {
+                if (current != null && current.position() > 0) {
+                    submitPart();
+                }
+                complete();
+            }
+            finished = true;
+        } catch (IOException | RuntimeException e) {
+            abort();
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    void abort() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        executor.shutdownNow();
+        if (current != null) {
+            pool.release(current);
+            current = null;
+        }
+        if (uploadId == null) {
+            return;
+        }
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(request.bucket())
+                    .key(request.key())
+                    .uploadId(uploadId)
+                    .build());
+            log.warn("Multipart upload aborted: " + uploadId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to abort multipart upload " + uploadId + ": " + e.getMessage());
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Upload of " + request.key() + " already finished");
+        }
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IOException("Streaming upload of " + request.key() + " failed", cause);
+        }
+    }
+
+    private void submitPart() throws IOException {
+        if (uploadId == null) {
+            CreateMultipartUploadRequest create = createRequest();
+            uploadId = retryPolicy.execute("createMultipartUpload " + request.key(), metrics,
+                    () -> s3Client.createMultipartUpload(create)).uploadId();
+            log.info("Streaming multipart upload started: parts of " + pool.bufferSize() + " bytes");
+        }
+        int partNumber = parts.size() + 1;
+        if (partNumber > MultipartUploader.MAX_PARTS) {
+            throw new IOException("Streamed content exceeds " + MultipartUploader.MAX_PARTS + " parts of "
+                    + pool.bufferSize() + " bytes, increase aws.s3.partSize");
+        }
+        ByteBuffer part = current;
+        current = null;
+        ((Buffer) part).flip();
+        parts.add(executor.submit(() -> {
+            try {
+                return uploadPart(partNumber, part);
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                pool.release(part);
+            }
+        }));
+    }
+
+    private CompletedPart uploadPart(int partNumber, ByteBuffer part) throws IOException {
+        UploadPartRequest partRequest = UploadPartRequest.builder()
+                .bucket(request.bucket())
+                .key(request.key())
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) part.remaining())
+                .build();
+        RequestBody body = RequestBody.fromContentProvider(provider(part), part.remaining(), "application/octet-stream");
+        UploadPartResponse response = retryPolicy.execute("uploadPart " + partNumber + " of " + request.key(), metrics,
+                () -> scheduler == null
+                        ? timed(() -> s3Client.uploadPart(partRequest, body))
+                        : scheduler.run(schedulerOwner, () -> timed(() -> s3Client.uploadPart(partRequest, body))));
+        log.debug("Uploaded part " + partNumber + " of " + request.key());
+        return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+    }
+
+    private void complete() throws IOException {
+        List<CompletedPart> completed = new ArrayList<>(parts.size());
+        try {
+            for (Future<CompletedPart> part : parts) {
+                completed.add(part.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Streaming upload interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Streaming upload of " + request.key() + " failed", e.getCause());
+        }
+        CompleteMultipartUploadRequest completeRequest = CompleteMultipartUploadRequest.builder()
+                .bucket(request.bucket())
+                .key(request.key())
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                .build();
+        CompleteMultipartUploadResponse response = retryPolicy.execute("completeMultipartUpload " + request.key(),
+                metrics, () -> s3Client.completeMultipartUpload(completeRequest));
+        eTag = response.eTag();
+    }
+
+    // Content smaller than one part never starts a multipart upload
+    private void putSingle() throws IOException {
+        ByteBuffer content = current == null ? ByteBuffer.allocate(0) : current;
+        current = null;
+        ((Buffer) content).flip();
+        try {
+            int length = content.remaining();
+            RequestBody body = RequestBody.fromContentProvider(provider(content), length, "application/octet-stream");
+            PutObjectResponse response = retryPolicy.execute("putObject " + request.key(), metrics,
+                    () -> scheduler == null
+                            ? timed(() -> s3Client.putObject(request, body))
+                            : scheduler.run(schedulerOwner, () -> timed(() -> s3Client.putObject(request, body))));
+            eTag = response.eTag();
+        } finally {
+            if (content.isDirect()) {
+                pool.release(content);
+            }
+        }
+    }
+
+    // Latency is recorded inside the scheduler slot, once per attempt, so queueing and backoff stay out of it
+    private <T> T timed(UploadRetryPolicy.Call<T> call) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            if (metrics != null) {
+                metrics.requestCompleted(start);
+            }
+        }
+    }
+
+    private ContentStreamProvider provider(ByteBuffer content) {
+        return () -> {
+            InputStream in = new ByteBufferInputStream(content.duplicate());
+            return bandwidthLimiter == null ? in : bandwidthLimiter.throttle(in);
+        };
+    }
+
+    private CreateMultipartUploadRequest createRequest() {
+        return CreateMultipartUploadRequest.builder()
+                .bucket(request.bucket())
+                .key(request.key())
+                .metadata(request.metadata())
+                .contentEncoding(request.contentEncoding())
+                .contentType(request.contentType())
+                .cacheControl(request.cacheControl())
+                .storageClass(request.storageClassAsString())
+                .tagging(request.tagging())
+                .grantRead(request.grantRead())
+                .build();
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, chunk);
+            return chunk;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
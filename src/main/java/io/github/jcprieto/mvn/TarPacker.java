@@ -0,0 +1,140 @@
+package io.github.jcprieto.mvn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class TarPacker {
+
+    static final int BLOCK_SIZE = 512;
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+    private TarPacker() {
+    }
+
+    // POSIX ustar with PAX headers for long names and files over 8 GB, written straight to the stream
+    static long pack(Path directory, OutputStream out) throws IOException {
+        List<Path> entries;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            entries = walk.filter(path -> !path.equals(directory)).sorted().collect(Collectors.toList());
+        }
+        byte[] buffer = new byte[64 * 1024];
+        long files = 0;
+        for (Path entry : entries) {
+            String name = directory.relativize(entry).toString().replace('\\', '/');
+            boolean isDirectory = Files.isDirectory(entry);
+            if (!isDirectory && !Files.isRegularFile(entry)) {
+                continue;
+            }
+            long size = isDirectory ? 0 : Files.size(entry);
+            long mtime = Files.getLastModifiedTime(entry).toMillis() / 1000;
+            writeEntry(out, isDirectory ? name + "/" : name, size, mtime, isDirectory);
+            if (!isDirectory) {
+                long copied = 0;
+                try (InputStream in = Files.newInputStream(entry)) {
+                    int bytesRead;
+                    while (copied < size && (bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, size - copied))) != -1) {
+                        out.write(buffer, 0, bytesRead);
+                        copied += bytesRead;
+                    }
+                }
+                if (copied != size) {
+                    throw new IOException(entry + " changed while packing");
+                }
+                pad(out, size);
+                files++;
+            }
+        }
+        out.write(new byte[2 * BLOCK_SIZE]);
+        return files;
+    }
+
+    private static void writeEntry(OutputStream out, String name, long size, long mtime, boolean isDirectory)
+            throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        StringBuilder pax = new StringBuilder();
+        if (nameBytes.length > 100) {
+            pax.append(paxRecord("path", name));
+        }
+        if (size > MAX_OCTAL_SIZE) {
+            pax.append(paxRecord("size", Long.toString(size)));
+        }
+        if (pax.length() > 0) {
+            byte[] records = pax.toString().getBytes(StandardCharsets.UTF_8);
+            out.write(header("PaxHeader", records.length, mtime, 'x'));
+            out.write(records);
+            pad(out, records.length);
+        }
+        String headerName = nameBytes.length > 100 ? truncate(name) : name;
+        out.write(header(headerName, size > MAX_OCTAL_SIZE ? 0 : size, mtime, isDirectory ? '5' : '0'));
+    }
+
+    private static String paxRecord(String key, String value) {
+        String record = " " + key + "=" + value + "\n";
+        int length = record.getBytes(StandardCharsets.UTF_8).length;
+        int total = length + Integer.toString(length).length();
+        if (Integer.toString(total).length() != Integer.toString(length).length()) {
+            total++;
+        }
+        return total + record;
+    }
+
+    private static String truncate(String name) {
+        StringBuilder truncated = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            if (truncated.toString().getBytes(StandardCharsets.UTF_8).length + String.valueOf(c)
+                    .getBytes(StandardCharsets.UTF_8).length > 100) {
+                break;
+            }
+            truncated.append(c);
+        }
+        return truncated.toString();
+    }
+
+    private static byte[] header(String name, long size, long mtime, char type) {
+        byte[] header = new byte[BLOCK_SIZE];
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(nameBytes, 0, header, 0, Math.min(100, nameBytes.length));
+        octal(header, 100, 8, type == '5' ? 0755 : 0644);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, mtime);
+        header[156] = (byte) type;
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        octal(header, 148, 7, checksum);
+        return header;
+    }
+
+    private static void octal(byte[] header, int offset, int length, long value) {
+        String digits = Long.toOctalString(value);
+        StringBuilder field = new StringBuilder();
+        for (int i = digits.length(); i < length - 1; i++) {
+            field.append('0');
+        }
+        field.append(digits);
+        byte[] bytes = field.toString().getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, length - 1);
+        header[offset + length - 1] = 0;
+    }
+
+    private static void pad(OutputStream out, long size) throws IOException {
+        int remainder = (int) (size % BLOCK_SIZE);
+        if (remainder != 0) {
+            out.write(new byte[BLOCK_SIZE - remainder]);
+        }
+    }
+}
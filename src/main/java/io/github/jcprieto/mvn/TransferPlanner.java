@@ -0,0 +1,126 @@
+package io.github.jcprieto.mvn;
+
+import java.util.Locale;
+
+class TransferPlanner {
+
+    enum Engine {
+        AUTO, SINGLE, MULTIPART;
+
+        static Engine parse(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return AUTO;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported transfer engine: " + value);
+            }
+        }
+    }
+
+    static final class Plan {
+        final boolean multipart;
+        final long partSize;
+        final int concurrency;
+        final String reason;
+
+        Plan(boolean multipart, long partSize, int concurrency, String reason) {
+            this.multipart = multipart;
+            this.partSize = partSize;
+            this.concurrency = concurrency;
+            this.reason = reason;
+        }
+
+        String describe() {
+            return multipart
+                    ? "multipart, " + partSize + " byte parts, " + concurrency + " in parallel (" + reason + ")"
+                    : "single PUT (" + reason + ")";
+        }
+    }
+
+    static final long MAX_SINGLE_PUT = 5L * 1024 * 1024 * 1024;
+    static final long MAX_AUTO_PART_SIZE = 128L * 1024 * 1024;
+    // Below this many seconds on one connection the extra create/complete round trips of multipart are not worth it
+    static final int SINGLE_PUT_SECONDS = 4;
+    // Parts long enough to amortise request latency, short enough that a retry repeats little work
+    static final int PART_SECONDS = 2;
+    // Aggregate below this share of concurrency x per-connection throughput means the link, not latency, is the limit
+    static final double SATURATION = 0.7;
+
+    private final Engine engine;
+    private final long multipartThreshold;
+    private final long partSize;
+    private final int partConcurrency;
+    private final int maxConcurrency;
+
+    TransferPlanner(Engine engine, long multipartThreshold, long partSize, int partConcurrency, int maxConcurrency) {
+        this.engine = engine;
+        this.multipartThreshold = multipartThreshold;
+        this.partSize = partSize;
+        this.partConcurrency = partConcurrency;
+        this.maxConcurrency = Math.max(partConcurrency, maxConcurrency);
+    }
+
+    Plan plan(long length, TransferStats.Sample sample) {
+        if (engine == Engine.MULTIPART) {
+            return configured(length, "transferEngine=MULTIPART");
+        }
+        if (length > MAX_SINGLE_PUT) {
+            return engine == Engine.SINGLE || sample == null || sample.streamBytesPerSecond <= 0
+                    ? configured(length, "over the 5 GB single PUT limit")
+                    : tuned(length, sample, "over the 5 GB single PUT limit");
+        }
+        if (engine == Engine.SINGLE) {
+            return new Plan(false, 0, 1, "transferEngine=SINGLE");
+        }
+        if (multipartThreshold <= 0) {
+            return new Plan(false, 0, 1, "multipart disabled");
+        }
+        if (sample == null || sample.streamBytesPerSecond <= 0) {
+            return length >= multipartThreshold
+                    ? configured(length, "no measured throughput yet, " + length + " >= multipartThreshold")
+                    : new Plan(false, 0, 1, "no measured throughput yet, " + length + " < multipartThreshold");
+        }
+        long stream = sample.streamBytesPerSecond;
+        long threshold = Math.max(2 * MultipartUploader.MIN_PART_SIZE, stream * SINGLE_PUT_SECONDS);
+        String estimate = String.format(Locale.ROOT, "~%.1f s on one connection at %s", length / (double) stream,
+                rate(stream));
+        if (length < threshold) {
+            return new Plan(false, 0, 1, estimate);
+        }
+        return tuned(length, sample, estimate);
+    }
+
+    private Plan configured(long length, String reason) {
+        return new Plan(true, MultipartUploader.effectivePartSize(length, partSize), partConcurrency, reason);
+    }
+
+    private Plan tuned(long length, TransferStats.Sample sample, String reason) {
+        long stream = sample.streamBytesPerSecond;
+        long mebibyte = 1024 * 1024;
+        long target = (stream * PART_SECONDS + mebibyte - 1) / mebibyte * mebibyte;
+        long size = MultipartUploader.effectivePartSize(length,
+                Math.max(MultipartUploader.MIN_PART_SIZE, Math.min(target, MAX_AUTO_PART_SIZE)));
+        long parts = (length + size - 1) / size;
+        int concurrency;
+        String scaling;
+        if (sample.concurrency <= 0 || sample.aggregateBytesPerSecond <= 0) {
+            concurrency = partConcurrency;
+            scaling = "no multipart measurement yet";
+        } else if (sample.aggregateBytesPerSecond < SATURATION * sample.concurrency * stream) {
+            concurrency = (int) Math.max(1, (sample.aggregateBytesPerSecond + stream - 1) / stream);
+            scaling = "link saturated at " + rate(sample.aggregateBytesPerSecond) + " with " + sample.concurrency
+                    + " connections";
+        } else {
+            concurrency = sample.concurrency * 2;
+            scaling = sample.concurrency + " connections scaled to " + rate(sample.aggregateBytesPerSecond);
+        }
+        concurrency = (int) Math.max(1, Math.min(Math.min(concurrency, maxConcurrency), parts));
+        return new Plan(true, size, concurrency, reason + ", " + scaling);
+    }
+
+    private static String rate(long bytesPerSecond) {
+        return String.format(Locale.ROOT, "%.2f MB/s", bytesPerSecond / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.jcprieto.mvn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+class TransferStats {
+
+    static final String FILE_NAME = "transfer-stats.properties";
+    static final long MIN_SAMPLE_BYTES = 1024 * 1024;
+    private static final double SMOOTHING = 0.3;
+
+    private static final Map<File, TransferStats> OPEN = new ConcurrentHashMap<>();
+
+    static final class Sample {
+        final long streamBytesPerSecond;
+        final long aggregateBytesPerSecond;
+        final int concurrency;
+        final long updated;
+
+        Sample(long streamBytesPerSecond, long aggregateBytesPerSecond, int concurrency, long updated) {
+            this.streamBytesPerSecond = streamBytesPerSecond;
+            this.aggregateBytesPerSecond = aggregateBytesPerSecond;
+            this.concurrency = concurrency;
+            this.updated = updated;
+        }
+
+        private String format() {
+            return streamBytesPerSecond + "," + aggregateBytesPerSecond + "," + concurrency + "," + updated;
+        }
+
+        private static Sample parse(String value) {
+            String[] fields = value.split(",", -1);
+            if (fields.length != 4) {
+                return null;
+            }
+            try {
+                return new Sample(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Integer.parseInt(fields[2]),
+                        Long.parseLong(fields[3]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private final File file;
+    private final Map<String, Sample> samples = new HashMap<>();
+    private boolean dirty;
+
+    private TransferStats(File file) {
+        this.file = file;
+    }
+
+    // One instance per file and JVM, so the modules of a parallel build learn from each other's uploads
+    static TransferStats open(File file) throws IOException {
+        File canonical = file.getCanonicalFile();
+        TransferStats stats = OPEN.computeIfAbsent(canonical, TransferStats::new);
+        stats.load();
+        return stats;
+    }
+
+    File file() {
+        return file;
+    }
+
+    synchronized Sample find(String key) {
+        return samples.get(key);
+    }
+
+    synchronized void recordSingle(String key, long bytes, long nanos) {
+        if (bytes < MIN_SAMPLE_BYTES || nanos <= 0) {
+            return;
+        }
+        Sample previous = samples.get(key);
+        long stream = smooth(previous == null ? 0 : previous.streamBytesPerSecond, rate(bytes, nanos));
+        samples.put(key, new Sample(stream, previous == null ? 0 : previous.aggregateBytesPerSecond,
+                previous == null ? 0 : previous.concurrency, System.currentTimeMillis()));
+        dirty = true;
+    }
+
+    synchronized void recordMultipart(String key, long streamBytesPerSecond, long bytes, long nanos, int concurrency) {
+        if (bytes < MIN_SAMPLE_BYTES || nanos <= 0 || streamBytesPerSecond <= 0) {
+            return;
+        }
+        Sample previous = samples.get(key);
+        long stream = smooth(previous == null ? 0 : previous.streamBytesPerSecond, streamBytesPerSecond);
+        // The aggregate only compares with uploads at the same concurrency, otherwise the newest measurement wins
+        long aggregate = previous != null && previous.concurrency == concurrency
+                ? smooth(previous.aggregateBytesPerSecond, rate(bytes, nanos))
+                : rate(bytes, nanos);
+        samples.put(key, new Sample(stream, aggregate, concurrency, System.currentTimeMillis()));
+        dirty = true;
+    }
+
+    synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(parent.toPath());
+        Properties properties = new Properties();
+        for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().format());
+        }
+        // Last writer wins between JVMs: the values are smoothed estimates, not records worth a lock. Each writer
+        // still needs its own temp file, or concurrent builds sharing the local repository would interleave one
+        Path temp = Files.createTempFile(parent.toPath(), file.getName() + ".", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "mvn-s3-upload transfer stats: streamBytesPerSecond,aggregateBytesPerSecond,concurrency,updated");
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        dirty = false;
+    }
+
+    private synchronized void load() throws IOException {
+        if (dirty || !file.isFile()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            properties.load(in);
+        }
+        samples.clear();
+        for (String name : properties.stringPropertyNames()) {
+            Sample sample = Sample.parse(properties.getProperty(name));
+            if (sample != null) {
+                samples.put(name, sample);
+            }
+        }
+    }
+
+    private static long rate(long bytes, long nanos) {
+        return (long) (bytes * 1_000_000_000.0 / nanos);
+    }
+
+    private static long smooth(long previous, long current) {
+        return previous <= 0 ? current : (long) (previous + SMOOTHING * (current - previous));
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.jcprieto.mvn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+class UploadCheckpoint {
+
+    private static final String PART_PREFIX = "part.";
+    private static final String CHECKSUM_PREFIX = "checksum.";
+
+    private final File location;
+    private final String bucket;
+    private final String key;
+    private final long fileLength;
+    private final long lastModified;
+    private final long partSize;
+    private final Map<Integer, String> completedParts = new TreeMap<>();
+    private final Map<Integer, String> partChecksums = new TreeMap<>();
+    private String uploadId;
+
+    UploadCheckpoint(File location, String bucket, String key, File file, long partSize) {
+        this(location, bucket, key, file.length(), file.lastModified(), partSize);
+    }
+
+    private UploadCheckpoint(File location, String bucket, String key, long fileLength, long lastModified, long partSize) {
+        this.location = location;
+        this.bucket = bucket;
+        this.key = key;
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.partSize = partSize;
+    }
+
+    static UploadCheckpoint load(File location) throws IOException {
+        if (!location.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(location.toPath())) {
+            properties.load(in);
+        }
+        try {
+            UploadCheckpoint checkpoint = new UploadCheckpoint(location,
+                    properties.getProperty("bucket"),
+                    properties.getProperty("key"),
+                    Long.parseLong(properties.getProperty("fileLength")),
+                    Long.parseLong(properties.getProperty("lastModified")),
+                    Long.parseLong(properties.getProperty("partSize")));
+            checkpoint.uploadId = properties.getProperty("uploadId");
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(PART_PREFIX)) {
+                    checkpoint.completedParts.put(Integer.parseInt(name.substring(PART_PREFIX.length())),
+                            properties.getProperty(name));
+                } else if (name.startsWith(CHECKSUM_PREFIX)) {
+                    checkpoint.partChecksums.put(Integer.parseInt(name.substring(CHECKSUM_PREFIX.length())),
+                            properties.getProperty(name));
+                }
+            }
+            return checkpoint.uploadId == null ? null : checkpoint;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    boolean matches(UploadCheckpoint other) {
+        return other != null
+                && bucket.equals(other.bucket)
+                && key.equals(other.key)
+                && fileLength == other.fileLength
+                && lastModified == other.lastModified
+                && partSize == other.partSize;
+    }
+
+    void partCompleted(int partNumber, String eTag) throws IOException {
+        partCompleted(partNumber, eTag, null);
+    }
+
+    synchronized void partCompleted(int partNumber, String eTag, String checksum) throws IOException {
+        completedParts.put(partNumber, eTag);
+        if (checksum != null) {
+            partChecksums.put(partNumber, checksum);
+        }
+        save();
+    }
+
+    synchronized void save() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("bucket", bucket);
+        properties.setProperty("key", key);
+        properties.setProperty("uploadId", uploadId);
+        properties.setProperty("fileLength", Long.toString(fileLength));
+        properties.setProperty("lastModified", Long.toString(lastModified));
+        properties.setProperty("partSize", Long.toString(partSize));
+        for (Map.Entry<Integer, String> part : completedParts.entrySet()) {
+            properties.setProperty(PART_PREFIX + part.getKey(), part.getValue());
+        }
+        for (Map.Entry<Integer, String> checksum : partChecksums.entrySet()) {
+            properties.setProperty(CHECKSUM_PREFIX + checksum.getKey(), checksum.getValue());
+        }
+        Path target = location.toPath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(location.getName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "S3 multipart upload checkpoint");
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(location.toPath());
+    }
+
+    synchronized Map<Integer, String> completedParts() {
+        return new TreeMap<>(completedParts);
+    }
+
+    synchronized Map<Integer, String> partChecksums() {
+        return new TreeMap<>(partChecksums);
+    }
+
+    synchronized void retainParts(Map<Integer, String> confirmedParts) {
+        completedParts.entrySet().removeIf(part -> !part.getValue().equals(confirmedParts.get(part.getKey())));
+        partChecksums.keySet().retainAll(completedParts.keySet());
+    }
+
+    long partSize() {
+        return partSize;
+    }
+
+    String uploadId() {
+        return uploadId;
+    }
+
+    void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    String bucket() {
+        return bucket;
+    }
+
+    String key() {
+        return key;
+    }
+}
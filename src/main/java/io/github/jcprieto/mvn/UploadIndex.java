@@ -0,0 +1,200 @@
+package io.github.jcprieto.mvn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+class UploadIndex {
+
+    static final String FILE_NAME = "upload-index.properties";
+    static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(90);
+    static final int MAX_ENTRIES = 100_000;
+
+    private static final Map<File, UploadIndex> OPEN = new ConcurrentHashMap<>();
+
+    static final class Entry {
+        final long size;
+        final long lastModified;
+        final String sha256;
+        final String eTag;
+        final long lastUsed;
+
+        Entry(long size, long lastModified, String sha256, String eTag, long lastUsed) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sha256 = sha256;
+            this.eTag = eTag;
+            this.lastUsed = lastUsed;
+        }
+
+        Entry touch(long now) {
+            return new Entry(size, lastModified, sha256, eTag, now);
+        }
+
+        private String format() {
+            return size + "," + lastModified + "," + sha256 + "," + (eTag == null ? "" : eTag) + "," + lastUsed;
+        }
+
+        private static Entry parse(String value) {
+            String[] fields = value.split(",", -1);
+            if (fields.length != 5) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]), fields[2],
+                        fields[3].isEmpty() ? null : fields[3], Long.parseLong(fields[4]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private final File file;
+    private final File lockFile;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Entry> pending = new HashMap<>();
+
+    private UploadIndex(File directory) {
+        this.file = new File(directory, FILE_NAME);
+        this.lockFile = new File(directory, FILE_NAME + ".lock");
+    }
+
+    static UploadIndex open(File directory) throws IOException {
+        File key = directory.getAbsoluteFile();
+        UploadIndex index = OPEN.computeIfAbsent(key, UploadIndex::new);
+        index.reload();
+        return index;
+    }
+
+    static String key(String endpoint, String bucket, String objectKey) {
+        return (endpoint == null ? "" : endpoint) + "|" + bucket + "/" + objectKey;
+    }
+
+    File file() {
+        return file;
+    }
+
+    // Size and mtime decide without reading the file; the hash only settles touched-but-identical files
+    synchronized Entry find(String key, File local, byte[] sha256) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.size != local.length()) {
+            return null;
+        }
+        boolean sameTimestamp = entry.lastModified == local.lastModified();
+        if (!sameTimestamp && (sha256 == null || !entry.sha256.equals(Checksums.toHex(sha256)))) {
+            return null;
+        }
+        Entry used = sameTimestamp
+                ? entry.touch(System.currentTimeMillis())
+                : new Entry(entry.size, local.lastModified(), entry.sha256, entry.eTag, System.currentTimeMillis());
+        entries.put(key, used);
+        pending.put(key, used);
+        return used;
+    }
+
+    synchronized void record(String key, File local, byte[] sha256, String eTag) {
+        Entry entry = new Entry(local.length(), local.lastModified(), sha256 == null ? "" : Checksums.toHex(sha256),
+                eTag, System.currentTimeMillis());
+        entries.put(key, entry);
+        pending.put(key, entry);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized void flush() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = lockChannel(); FileLock ignored = channel.lock()) {
+            Map<String, Entry> merged = read();
+            for (Map.Entry<String, Entry> update : pending.entrySet()) {
+                Entry existing = merged.get(update.getKey());
+                if (existing == null || existing.lastUsed <= update.getValue().lastUsed) {
+                    merged.put(update.getKey(), update.getValue());
+                }
+            }
+            compact(merged, System.currentTimeMillis());
+            write(merged);
+            entries.clear();
+            entries.putAll(merged);
+            pending.clear();
+        }
+    }
+
+    private synchronized void reload() throws IOException {
+        if (!file.isFile()) {
+            return;
+        }
+        try (FileChannel channel = lockChannel(); FileLock ignored = channel.lock()) {
+            Map<String, Entry> stored = read();
+            stored.putAll(pending);
+            entries.clear();
+            entries.putAll(stored);
+        }
+    }
+
+    static void compact(Map<String, Entry> entries, long now) {
+        entries.values().removeIf(entry -> now - entry.lastUsed > MAX_AGE_MILLIS);
+        if (entries.size() <= MAX_ENTRIES) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> byAge = new ArrayList<>(entries.entrySet());
+        byAge.sort((a, b) -> Long.compare(a.getValue().lastUsed, b.getValue().lastUsed));
+        for (Map.Entry<String, Entry> oldest : byAge.subList(0, byAge.size() - MAX_ENTRIES)) {
+            entries.remove(oldest.getKey());
+        }
+    }
+
+    // One instance per directory serializes threads of this JVM; the file lock serializes concurrent builds
+    private FileChannel lockChannel() throws IOException {
+        Files.createDirectories(lockFile.getParentFile().toPath());
+        return FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private Map<String, Entry> read() throws IOException {
+        Map<String, Entry> stored = new HashMap<>();
+        if (!file.isFile()) {
+            return stored;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            properties.load(in);
+        } catch (IllegalArgumentException e) {
+            return stored;
+        }
+        for (String name : properties.stringPropertyNames()) {
+            Entry entry = Entry.parse(properties.getProperty(name));
+            if (entry != null) {
+                stored.put(name, entry);
+            }
+        }
+        return stored;
+    }
+
+    private void write(Map<String, Entry> stored) throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Entry> entry : stored.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().format());
+        }
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp.toPath())) {
+            properties.store(out, "mvn-s3-upload index: size,lastModified,sha256,eTag,lastUsed");
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
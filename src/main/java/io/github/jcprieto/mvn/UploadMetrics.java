@@ -0,0 +1,173 @@
+package io.github.jcprieto.mvn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+class UploadMetrics {
+
+    enum Status {
+        UPLOADED, SKIPPED_UNCHANGED, FAILED
+    }
+
+    private final String artifact;
+    private final String bucket;
+    private final String key;
+    private volatile long bytes;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong firstByteNanos = new AtomicLong();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder backoffMillis = new LongAdder();
+    private final LatencyHistogram requestLatency = new LatencyHistogram();
+    private volatile long transferStartNanos;
+    private volatile long endNanos;
+    private volatile long transferredBytes;
+    private volatile long clientInitMillis;
+    private volatile boolean multipart;
+    private volatile Status status;
+    private volatile String error;
+    private volatile String eTag;
+    private volatile long streamBytesPerSecond;
+    private volatile long wireBytes;
+    private volatile long wireNanos;
+
+    UploadMetrics(String artifact, String bucket, String key, long bytes) {
+        this.artifact = artifact;
+        this.bucket = bucket;
+        this.key = key;
+        this.bytes = bytes;
+        this.transferredBytes = bytes;
+    }
+
+    void transferStarted() {
+        transferStartNanos = System.nanoTime();
+        firstByteNanos.set(0);
+    }
+
+    void firstByte() {
+        firstByteNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    void retried(long delayMillis) {
+        retries.increment();
+        backoffMillis.add(delayMillis);
+    }
+
+    void requestCompleted(long startNanos) {
+        requestLatency.recordMicros((System.nanoTime() - startNanos) / 1000);
+    }
+
+    void clientInitMillis(long millis) {
+        clientInitMillis = millis;
+    }
+
+    void bytes(long bytes) {
+        this.bytes = bytes;
+        this.transferredBytes = bytes;
+    }
+
+    void transferredBytes(long transferredBytes) {
+        this.transferredBytes = transferredBytes;
+    }
+
+    void multipart(boolean multipart) {
+        this.multipart = multipart;
+    }
+
+    void eTag(String eTag) {
+        this.eTag = eTag;
+    }
+
+    void streamBytesPerSecond(long streamBytesPerSecond) {
+        this.streamBytesPerSecond = streamBytesPerSecond;
+    }
+
+    // Bytes sent and the time some request of this transfer was actually on the wire, without queueing or backoff
+    void wireTime(long bytes, long nanos) {
+        this.wireBytes = bytes;
+        this.wireNanos = nanos;
+    }
+
+    void finish(Status status, String error) {
+        this.endNanos = System.nanoTime();
+        this.status = status;
+        this.error = error;
+    }
+
+    String artifact() {
+        return artifact;
+    }
+
+    String eTag() {
+        return eTag;
+    }
+
+    long streamBytesPerSecond() {
+        return streamBytesPerSecond;
+    }
+
+    long wireBytes() {
+        return wireBytes;
+    }
+
+    long wireNanos() {
+        return wireNanos;
+    }
+
+    String bucket() {
+        return bucket;
+    }
+
+    String key() {
+        return key;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    long transferredBytes() {
+        return transferredBytes;
+    }
+
+    boolean multipart() {
+        return multipart;
+    }
+
+    Status status() {
+        return status;
+    }
+
+    String error() {
+        return error;
+    }
+
+    long durationMillis() {
+        return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1_000_000;
+    }
+
+    long timeToFirstByteMillis() {
+        long first = firstByteNanos.get();
+        return first == 0 ? -1 : (first - (transferStartNanos == 0 ? startNanos : transferStartNanos)) / 1_000_000;
+    }
+
+    double throughputMegabytesPerSecond() {
+        long duration = durationMillis();
+        return status != Status.UPLOADED || duration <= 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (duration / 1000.0);
+    }
+
+    long retries() {
+        return retries.sum();
+    }
+
+    long backoffMillis() {
+        return backoffMillis.sum();
+    }
+
+    long clientInitMillis() {
+        return clientInitMillis;
+    }
+
+    LatencyHistogram requestLatency() {
+        return requestLatency;
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.jcprieto.mvn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class UploadReport {
+
+    enum Format {
+        NONE, JSON, CSV
+    }
+
+    private static final String CSV_HEADER = "artifact,bucket,key,status,bytes,transferredBytes,multipart,"
+            + "clientInitMillis,timeToFirstByteMillis,durationMillis,throughputMBps,retries,backoffMillis,"
+            + "requests,latencyP50Micros,latencyP90Micros,latencyP99Micros,latencyMaxMicros,error";
+
+    private final File file;
+    private final Format format;
+    private final List<UploadMetrics> entries = new ArrayList<>();
+
+    UploadReport(File directory, Format format) {
+        this.format = format;
+        this.file = new File(directory, "s3-upload-report." + format.name().toLowerCase(Locale.ROOT));
+    }
+
+    static Format parseFormat(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Format.NONE;
+        }
+        try {
+            return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported report format: " + value, e);
+        }
+    }
+
+    File file() {
+        return file;
+    }
+
+    synchronized void add(UploadMetrics metrics) throws IOException {
+        entries.add(metrics);
+        write();
+    }
+
+    private void write() throws IOException {
+        String content = format == Format.CSV ? toCsv() : toJson();
+        Files.createDirectories(file.getParentFile().toPath());
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        Files.write(temp.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"uploads\": [");
+        for (int i = 0; i < entries.size(); i++) {
+            UploadMetrics metrics = entries.get(i);
+            LatencyHistogram latency = metrics.requestLatency();
+            json.append(i == 0 ? "\n" : ",\n").append("    {");
+            json.append("\"artifact\": ").append(quote(metrics.artifact()));
+            json.append(", \"bucket\": ").append(quote(metrics.bucket()));
+            json.append(", \"key\": ").append(quote(metrics.key()));
+            json.append(", \"status\": ").append(quote(String.valueOf(metrics.status())));
+            json.append(", \"bytes\": ").append(metrics.bytes());
+            json.append(", \"transferredBytes\": ").append(metrics.transferredBytes());
+            json.append(", \"multipart\": ").append(metrics.multipart());
+            json.append(", \"clientInitMillis\": ").append(metrics.clientInitMillis());
+            json.append(", \"timeToFirstByteMillis\": ").append(metrics.timeToFirstByteMillis());
+            json.append(", \"durationMillis\": ").append(metrics.durationMillis());
+            json.append(", \"throughputMBps\": ").append(format(metrics.throughputMegabytesPerSecond()));
+            json.append(", \"retries\": ").append(metrics.retries());
+            json.append(", \"backoffMillis\": ").append(metrics.backoffMillis());
+            json.append(", \"requestLatencyMicros\": {\"count\": ").append(latency.count())
+                    .append(", \"p50\": ").append(latency.percentileMicros(50))
+                    .append(", \"p90\": ").append(latency.percentileMicros(90))
+                    .append(", \"p99\": ").append(latency.percentileMicros(99))
+                    .append(", \"max\": ").append(latency.maxMicros()).append('}');
+            json.append(", \"error\": ").append(metrics.error() == null ? "null" : quote(metrics.error()));
+            json.append('}');
+        }
+        return json.append(entries.isEmpty() ? "]\n}\n" : "\n  ]\n}\n").toString();
+    }
+
+    private String toCsv() {
+        StringBuilder csv = new StringBuilder(CSV_HEADER).append('\n');
+        for (UploadMetrics metrics : entries) {
+            LatencyHistogram latency = metrics.requestLatency();
+            csv.append(csvField(metrics.artifact())).append(',')
+                    .append(csvField(metrics.bucket())).append(',')
+                    .append(csvField(metrics.key())).append(',')
+                    .append(metrics.status()).append(',')
+                    .append(metrics.bytes()).append(',')
+                    .append(metrics.transferredBytes()).append(',')
+                    .append(metrics.multipart()).append(',')
+                    .append(metrics.clientInitMillis()).append(',')
+                    .append(metrics.timeToFirstByteMillis()).append(',')
+                    .append(metrics.durationMillis()).append(',')
+                    .append(format(metrics.throughputMegabytesPerSecond())).append(',')
+                    .append(metrics.retries()).append(',')
+                    .append(metrics.backoffMillis()).append(',')
+                    .append(latency.count()).append(',')
+                    .append(latency.percentileMicros(50)).append(',')
+                    .append(latency.percentileMicros(90)).append(',')
+                    .append(latency.percentileMicros(99)).append(',')
+                    .append(latency.maxMicros()).append(',')
+                    .append(metrics.error() == null ? "" : csvField(metrics.error()))
+                    .append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.logging.Log;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+class UploadRetryPolicy {
+
+    interface Call<T> {
+        T call() throws IOException;
+    }
+
+    private static final Set<String> THROTTLING_CODES = new HashSet<>(Arrays.asList(
+            "SlowDown", "Throttling", "ThrottlingException", "RequestLimitExceeded", "TooManyRequestsException"));
+    private static final Set<String> TRANSIENT_CODES = new HashSet<>(Arrays.asList(
+            "RequestTimeout", "InternalError", "ServiceUnavailable"));
+
+    private final Log log;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder throttledRetries = new LongAdder();
+    private final LongAdder backoffMillis = new LongAdder();
+
+    UploadRetryPolicy(Log log, int maxAttempts, long baseDelayMillis, long maxDelayMillis, boolean adaptive) {
+        this.log = log;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.rateLimiter = adaptive ? new AdaptiveRateLimiter() : null;
+    }
+
+    static UploadRetryPolicy noRetry(Log log) {
+        return new UploadRetryPolicy(log, 1, 1, 1, false);
+    }
+
+    <T> T execute(String operation, Call<T> call) throws IOException {
+        return execute(operation, null, call);
+    }
+
+    <T> T execute(String operation, UploadMetrics metrics, Call<T> call) throws IOException {
+        int attempt = 1;
+        while (true) {
+            try {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+                T result = call.call();
+                if (rateLimiter != null) {
+                    rateLimiter.onSuccess();
+                }
+                return result;
+            } catch (RuntimeException | IOException e) {
+                boolean throttled = isThrottling(e);
+                if (throttled && rateLimiter != null) {
+                    rateLimiter.onThrottle();
+                }
+                if (attempt >= maxAttempts || !(throttled || isTransient(e))) {
+                    throw e;
+                }
+                long delay = backoffDelay(attempt);
+                log.warn("Retrying " + operation + " (attempt " + (attempt + 1) + "/" + maxAttempts + ") in " + delay
+                        + " ms: " + describe(e));
+                retries.increment();
+                if (throttled) {
+                    throttledRetries.increment();
+                }
+                if (metrics != null) {
+                    metrics.retried(delay);
+                }
+                backoff(operation, delay);
+                attempt++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(operation + " interrupted", e);
+            }
+        }
+    }
+
+    long retries() {
+        return retries.sum();
+    }
+
+    long backoffMillis() {
+        return backoffMillis.sum();
+    }
+
+    String summary() {
+        String summary = "Retries: " + retries.sum() + " (" + throttledRetries.sum() + " throttled), "
+                + backoffMillis.sum() + " ms backing off";
+        if (rateLimiter != null && rateLimiter.isLimiting()) {
+            summary += String.format(Locale.ROOT, ", client-side rate limit %.2f requests/s", rateLimiter.rate());
+        }
+        return summary;
+    }
+
+    long backoffDelay(int attempt) {
+        long ceiling = baseDelayMillis << Math.min(attempt - 1, 30);
+        ceiling = Math.min(maxDelayMillis, ceiling <= 0 ? maxDelayMillis : ceiling);
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    static boolean isThrottling(Throwable e) {
+        if (e instanceof AwsServiceException) {
+            AwsServiceException serviceException = (AwsServiceException) e;
+            return serviceException.statusCode() == 429 || serviceException.statusCode() == 503
+                    || serviceException.isThrottlingException()
+                    || THROTTLING_CODES.contains(errorCode(serviceException));
+        }
+        return false;
+    }
+
+    static boolean isTransient(Throwable e) {
+        if (e instanceof AwsServiceException) {
+            AwsServiceException serviceException = (AwsServiceException) e;
+            return serviceException.statusCode() >= 500 || TRANSIENT_CODES.contains(errorCode(serviceException));
+        }
+        if (e instanceof ApiCallAttemptTimeoutException || e instanceof IOException) {
+            return true;
+        }
+        if (e instanceof SdkClientException || e instanceof UncheckedIOException) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String errorCode(AwsServiceException e) {
+        return e.awsErrorDetails() == null ? null : e.awsErrorDetails().errorCode();
+    }
+
+    private static String describe(Throwable e) {
+        if (e instanceof AwsServiceException && errorCode((AwsServiceException) e) != null) {
+            return errorCode((AwsServiceException) e) + " (" + ((AwsServiceException) e).statusCode() + ")";
+        }
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private void backoff(String operation, long millis) throws IOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(operation + " interrupted", e);
+        }
+        backoffMillis.add(millis);
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class UploadScheduler {
+
+    static final int DEFAULT_MAX_CONCURRENT = 16;
+
+    private static final String SESSION_KEY = UploadScheduler.class.getName();
+
+    private final int maxConcurrent;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final Map<String, Integer> active = new HashMap<>();
+    private final Map<String, Long> lastGrant = new HashMap<>();
+    private final Map<String, BandwidthLimiter> limiters = new HashMap<>();
+    private int running;
+    private long grants;
+
+    UploadScheduler(int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    // Parallel (-T) module builds share the session, so the first execution fixes the limit for the whole build
+    static UploadScheduler forSession(MavenSession session, int maxConcurrent) {
+        SessionData data = session.getRepositorySession().getData();
+        Object scheduler = data.get(SESSION_KEY);
+        if (scheduler == null) {
+            data.set(SESSION_KEY, null, new UploadScheduler(maxConcurrent));
+            scheduler = data.get(SESSION_KEY);
+        }
+        return (UploadScheduler) scheduler;
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    synchronized int running() {
+        return running;
+    }
+
+    synchronized int waiting() {
+        return waiters.size();
+    }
+
+    synchronized BandwidthLimiter bandwidthLimiter(long bytesPerSecond, long burstBytes) {
+        return limiters.computeIfAbsent(bytesPerSecond + "/" + burstBytes,
+                key -> new BandwidthLimiter(bytesPerSecond, burstBytes));
+    }
+
+    <T> T run(String owner, UploadRetryPolicy.Call<T> call) throws IOException {
+        try (Slot ignored = acquire(owner, 1)) {
+            return call.call();
+        }
+    }
+
+    Slot acquire(String owner, int permits) throws InterruptedIOException {
+        Waiter waiter = new Waiter(owner, Math.max(1, Math.min(permits, maxConcurrent)));
+        synchronized (this) {
+            waiters.add(waiter);
+            try {
+                while (running + waiter.permits > maxConcurrent || next() != waiter) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                waiters.remove(waiter);
+                notifyAll();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for an upload slot");
+            }
+            waiters.remove(waiter);
+            running += waiter.permits;
+            active.merge(owner, waiter.permits, Integer::sum);
+            lastGrant.put(owner, ++grants);
+            notifyAll();
+            return new Slot(owner, waiter.permits);
+        }
+    }
+
+    // Fair share between modules: fewest requests in flight first, then the module served longest ago, then arrival
+    private Waiter next() {
+        Waiter selected = null;
+        for (Waiter waiter : waiters) {
+            if (selected == null || compare(waiter, selected) < 0) {
+                selected = waiter;
+            }
+        }
+        return selected;
+    }
+
+    private int compare(Waiter a, Waiter b) {
+        int byActive = Integer.compare(active.getOrDefault(a.owner, 0), active.getOrDefault(b.owner, 0));
+        if (byActive != 0) {
+            return byActive;
+        }
+        return Long.compare(lastGrant.getOrDefault(a.owner, 0L), lastGrant.getOrDefault(b.owner, 0L));
+    }
+
+    private synchronized void release(Slot slot) {
+        running -= slot.permits;
+        active.computeIfPresent(slot.owner, (owner, count) -> count > slot.permits ? count - slot.permits : null);
+        notifyAll();
+    }
+
+    private static final class Waiter {
+        final String owner;
+        final int permits;
+
+        Waiter(String owner, int permits) {
+            this.owner = owner;
+            this.permits = permits;
+        }
+    }
+
+    final class Slot implements AutoCloseable {
+        private final String owner;
+        private final int permits;
+        private boolean released;
+
+        private Slot(String owner, int permits) {
+            this.owner = owner;
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(this);
+            }
+        }
+    }
+}
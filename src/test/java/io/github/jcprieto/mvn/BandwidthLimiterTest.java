@@ -0,0 +1,60 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class BandwidthLimiterTest {
+
+    @Test
+    @DisplayName("BandwidthLimiter -> Permite la ráfaga inicial y espera proporcionalmente después")
+    public void burstThenWaitTest() {
+        BandwidthLimiter limiter = new BandwidthLimiter(1000, 2000);
+        Assertions.assertEquals(0, limiter.reserve(2000));
+        long waitNanos = limiter.reserve(500);
+        Assertions.assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(400), String.valueOf(waitNanos));
+        Assertions.assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(500), String.valueOf(waitNanos));
+        long queuedNanos = limiter.reserve(500);
+        Assertions.assertTrue(queuedNanos > waitNanos, "Second reservation must queue behind the first");
+    }
+
+    @Test
+    @DisplayName("BandwidthLimiter -> Reparte el límite entre streams concurrentes")
+    public void sharesLimitAcrossStreamsTest() throws Exception {
+        BandwidthLimiter limiter = new BandwidthLimiter(200 * 1024, 16 * 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        long start = System.nanoTime();
+        try {
+            List<Future<Long>> reads = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                reads.add(executor.submit(() -> {
+                    long total = 0;
+                    try (InputStream in = limiter.throttle(new ByteArrayInputStream(new byte[72 * 1024]))) {
+                        byte[] buffer = new byte[8 * 1024];
+                        int n;
+                        while ((n = in.read(buffer)) != -1) {
+                            total += n;
+                        }
+                    }
+                    return total;
+                }));
+            }
+            for (Future<Long> read : reads) {
+                Assertions.assertEquals(72 * 1024, read.get().longValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assertions.assertTrue(elapsedMillis >= 550, "Elapsed " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ContentDefinedChunkerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File write(String name, byte[] content) throws IOException {
+        return Files.write(tempDir.resolve(name), content).toFile();
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    @DisplayName("ContentDefinedChunker -> El troceado en paralelo coincide con el secuencial y respeta los límites")
+    public void parallelMatchesSequentialTest() throws IOException {
+        File file = write("app.war", randomBytes(3 * 1024 * 1024 + 17, 1));
+        ContentDefinedChunker chunker = new ContentDefinedChunker(64 * 1024);
+
+        List<ContentDefinedChunker.Chunk> sequential = chunker.chunk(file, 1);
+        List<ContentDefinedChunker.Chunk> parallel = chunker.chunk(file, 8);
+
+        Assertions.assertEquals(sequential.stream().map(chunk -> chunk.sha256).collect(Collectors.toList()),
+                parallel.stream().map(chunk -> chunk.sha256).collect(Collectors.toList()));
+        long offset = 0;
+        for (int i = 0; i < parallel.size(); i++) {
+            ContentDefinedChunker.Chunk chunk = parallel.get(i);
+            Assertions.assertEquals(offset, chunk.offset);
+            Assertions.assertTrue(chunk.length <= 4 * 64 * 1024);
+            Assertions.assertTrue(i == parallel.size() - 1 || chunk.length >= 16 * 1024);
+            offset += chunk.length;
+        }
+        Assertions.assertEquals(file.length(), offset);
+        Assertions.assertTrue(parallel.size() > 20 && parallel.size() < 100, String.valueOf(parallel.size()));
+    }
+
+    @Test
+    @DisplayName("ContentDefinedChunker -> Un cambio local solo altera los trozos de alrededor")
+    public void localEditKeepsOtherChunksTest() throws IOException {
+        byte[] original = randomBytes(2 * 1024 * 1024, 2);
+        byte[] edited = new byte[original.length + 100];
+        int at = original.length / 2;
+        System.arraycopy(original, 0, edited, 0, at);
+        System.arraycopy(randomBytes(100, 3), 0, edited, at, 100);
+        System.arraycopy(original, at, edited, at + 100, original.length - at);
+        ContentDefinedChunker chunker = new ContentDefinedChunker(64 * 1024);
+
+        Set<String> before = chunker.chunk(write("v1.war", original), 4).stream()
+                .map(chunk -> chunk.sha256).collect(Collectors.toSet());
+        List<ContentDefinedChunker.Chunk> after = chunker.chunk(write("v2.war", edited), 4);
+
+        Set<String> changed = new HashSet<>();
+        for (ContentDefinedChunker.Chunk chunk : after) {
+            if (!before.contains(chunk.sha256)) {
+                changed.add(chunk.sha256);
+            }
+        }
+        Assertions.assertTrue(changed.size() <= 2, changed.size() + " of " + after.size() + " chunks changed");
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+public class FanOutBufferTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("FanOutBuffer -> Todos los consumidores leen los mismos bytes con un anillo pequeño")
+    public void consumersReadSameBytesTest() throws Exception {
+        byte[] data = new byte[10_000];
+        new Random(42).nextBytes(data);
+        File file = Files.write(tempDir.resolve("artifact.war"), data).toFile();
+        CRC32 expected = new CRC32();
+        expected.update(data, 0, data.length);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (FanOutBuffer buffer = new FanOutBuffer(file, 3, 64, 2)) {
+            buffer.start();
+            List<Future<byte[]>> results = new ArrayList<>();
+            List<CRC32> checksums = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                CRC32 checksum = new CRC32();
+                checksums.add(checksum);
+                int consumer = i;
+                int readSize = 7 + i * 50;
+                results.add(executor.submit(() -> readFully(buffer.stream(consumer, checksum, null), readSize)));
+            }
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertArrayEquals(data, results.get(i).get());
+                Assertions.assertEquals(expected.getValue(), checksums.get(i).getValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("FanOutBuffer -> Un consumidor liberado no bloquea al resto")
+    public void releasedConsumerDoesNotBlockTest() throws IOException, ExecutionException, InterruptedException {
+        byte[] data = new byte[1_000];
+        Arrays.fill(data, (byte) 'a');
+        File file = Files.write(tempDir.resolve("artifact.war"), data).toFile();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (FanOutBuffer buffer = new FanOutBuffer(file, 2, 16, 2)) {
+            buffer.start();
+            buffer.release(1);
+            Future<byte[]> result = executor.submit(() -> readFully(buffer.stream(0, null, null), 10));
+            Assertions.assertArrayEquals(data, result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] readFully(InputStream in, int readSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream stream = in) {
+            byte[] buffer = new byte[readSize];
+            int n;
+            while ((n = stream.read(buffer, 0, buffer.length)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+}
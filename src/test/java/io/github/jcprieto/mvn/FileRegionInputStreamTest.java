@@ -0,0 +1,78 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+public class FileRegionInputStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("FileRegionInputStream -> Lee solo la región indicada atravesando varias ventanas")
+    public void readsRegionAcrossWindowsTest() throws IOException {
+        File file = Files.write(tempDir.resolve("artifact.war"), "0123456789abcdef".getBytes(StandardCharsets.UTF_8)).toFile();
+        CRC32 checksum = new CRC32();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new FileRegionInputStream(file, 3, 10, checksum, null, 4)) {
+            Assertions.assertEquals('3', in.read());
+            byte[] buffer = new byte[5];
+            int n;
+            while ((n = in.read(buffer, 0, buffer.length)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }
+        Assertions.assertEquals("456789abc", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        CRC32 expected = new CRC32();
+        expected.update("3456789abc".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(expected.getValue(), checksum.getValue());
+    }
+
+    @Test
+    @DisplayName("FileRegionInputStream -> Informa del progreso completo al terminar la lectura")
+    public void reportsProgressOnEndOfStreamTest() throws IOException {
+        File file = Files.write(tempDir.resolve("artifact.war"), "0123456789".getBytes(StandardCharsets.UTF_8)).toFile();
+        CountingTracker tracker = new CountingTracker(file.length());
+        try (InputStream in = new FileRegionInputStream(file, 0, file.length(), null, tracker)) {
+            byte[] buffer = new byte[3];
+            while (in.read(buffer) != -1) {
+                Assertions.assertEquals(0, tracker.reported);
+            }
+        }
+        Assertions.assertEquals(file.length(), tracker.reported);
+    }
+
+    @Test
+    @DisplayName("FileRegionInputStream -> Devuelve fin de fichero para regiones vacías")
+    public void emptyRegionTest() throws IOException {
+        File file = Files.write(tempDir.resolve("empty.war"), new byte[0]).toFile();
+        try (InputStream in = new FileRegionInputStream(file, 0, 0, null, null)) {
+            Assertions.assertEquals(-1, in.read());
+        }
+    }
+
+    private static class CountingTracker extends ProgressTracker {
+        private long reported;
+
+        private CountingTracker(long totalBytes) {
+            super(new SystemStreamLog(), totalBytes);
+        }
+
+        @Override
+        public void onBytesRead(long bytesRead) {
+            reported += bytesRead;
+        }
+    }
+}
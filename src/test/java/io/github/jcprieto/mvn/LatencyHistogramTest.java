@@ -0,0 +1,37 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("LatencyHistogram -> Calcula percentiles con un error relativo acotado")
+    public void percentilesTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.recordMicros(micros * 1000);
+        }
+
+        Assertions.assertEquals(1000, histogram.count());
+        Assertions.assertEquals(1_000_000, histogram.maxMicros());
+        assertWithin(500_000, histogram.percentileMicros(50));
+        assertWithin(990_000, histogram.percentileMicros(99));
+        Assertions.assertEquals(1_000_000, histogram.percentileMicros(100));
+    }
+
+    @Test
+    @DisplayName("LatencyHistogram -> Los índices cubren todo el rango de valores")
+    public void bucketBoundsTest() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1023, 1024, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            Assertions.assertTrue(LatencyHistogram.upperBound(index) >= value);
+            Assertions.assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < value);
+        }
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        Assertions.assertTrue(Math.abs(actual - expected) <= expected / 8, "expected ~" + expected + " but was " + actual);
+    }
+}
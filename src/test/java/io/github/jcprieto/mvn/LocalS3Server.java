@@ -0,0 +1,234 @@
+package io.github.jcprieto.mvn;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+class LocalS3Server implements AutoCloseable {
+
+    static final class StoredObject {
+        final byte[] content;
+        final Map<String, String> headers;
+
+        StoredObject(byte[] content, Map<String, String> headers) {
+            this.content = content;
+            this.headers = headers;
+        }
+    }
+
+    private final HttpServer server;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+
+    LocalS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    StoredObject object(String bucket, String key) {
+        return objects.get(bucket + "/" + key);
+    }
+
+    List<String> requests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String objectPath = exchange.getRequestURI().getPath().substring(1);
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            requests.add(method + " /" + objectPath + (query.isEmpty() ? "" : "?" + String.join("&", query.keySet())));
+            if ("HEAD".equals(method)) {
+                head(exchange, objectPath);
+            } else if ("PUT".equals(method) && query.containsKey("acl")) {
+                readBody(exchange);
+                respond(exchange, 200, null, "");
+            } else if ("PUT".equals(method) && query.containsKey("partNumber")) {
+                byte[] part = readBody(exchange);
+                uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), part);
+                respond(exchange, 200, etag(part), "");
+            } else if ("PUT".equals(method)) {
+                byte[] content = readBody(exchange);
+                objects.put(objectPath, new StoredObject(content, storedHeaders(exchange.getRequestHeaders())));
+                respond(exchange, 200, etag(content), "");
+            } else if ("POST".equals(method) && query.containsKey("uploads")) {
+                readBody(exchange);
+                String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                objects.put(objectPath + "#" + uploadId,
+                        new StoredObject(new byte[0], storedHeaders(exchange.getRequestHeaders())));
+                respond(exchange, 200, null, "<InitiateMultipartUploadResult><Bucket>" + bucketOf(objectPath)
+                        + "</Bucket><Key>" + keyOf(objectPath) + "</Key><UploadId>" + uploadId
+                        + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("POST".equals(method) && query.containsKey("uploadId")) {
+                readBody(exchange);
+                String uploadId = query.get("uploadId");
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                for (byte[] part : new TreeMap<>(uploads.remove(uploadId)).values()) {
+                    content.write(part);
+                }
+                StoredObject initiated = objects.remove(objectPath + "#" + uploadId);
+                objects.put(objectPath, new StoredObject(content.toByteArray(), initiated.headers));
+                respond(exchange, 200, null, "<CompleteMultipartUploadResult><Bucket>" + bucketOf(objectPath)
+                        + "</Bucket><Key>" + keyOf(objectPath) + "</Key><ETag>" + etag(content.toByteArray())
+                        + "</ETag></CompleteMultipartUploadResult>");
+            } else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                respond(exchange, 204, null, null);
+            } else {
+                respond(exchange, 501, null, "<Error><Code>NotImplemented</Code></Error>");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void head(HttpExchange exchange, String objectPath) throws IOException {
+        StoredObject object = objects.get(objectPath);
+        if (object == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        for (Map.Entry<String, String> header : object.headers.entrySet()) {
+            exchange.getResponseHeaders().add(header.getKey(), header.getValue());
+        }
+        exchange.getResponseHeaders().add("ETag", etag(object.content));
+        exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.content.length));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private static Map<String, String> storedHeaders(Headers headers) {
+        Map<String, String> stored = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (name.startsWith("x-amz-meta-") || name.equals("content-type") || name.equals("cache-control")
+                    || name.equals("x-amz-storage-class") || name.equals("x-amz-tagging")) {
+                stored.put(name, header.getValue().get(0));
+            } else if (name.equals("content-encoding")) {
+                String encoding = header.getValue().get(0).replace("aws-chunked", "").replaceAll("^,|,$", "").trim();
+                if (!encoding.isEmpty()) {
+                    stored.put(name, encoding);
+                }
+            }
+        }
+        return stored;
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                body.write(buffer, 0, n);
+            }
+        }
+        Headers headers = exchange.getRequestHeaders();
+        String contentSha = headers.getFirst("x-amz-content-sha256");
+        String encoding = headers.getFirst("Content-Encoding");
+        boolean chunked = (contentSha != null && contentSha.startsWith("STREAMING-"))
+                || (encoding != null && encoding.contains("aws-chunked"));
+        return chunked ? decodeAwsChunked(body.toByteArray()) : body.toByteArray();
+    }
+
+    private static byte[] decodeAwsChunked(byte[] encoded) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < encoded.length) {
+            int lineEnd = indexOfCrlf(encoded, position);
+            String header = new String(encoded, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int separator = header.indexOf(';');
+            int size = Integer.parseInt((separator < 0 ? header : header.substring(0, separator)).trim(), 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(encoded, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Malformed aws-chunked body");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String etag, String body) throws IOException {
+        if (etag != null) {
+            exchange.getResponseHeaders().add("ETag", etag);
+        }
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new TreeMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            query.put(equals < 0 ? parameter : parameter.substring(0, equals),
+                    equals < 0 ? "" : parameter.substring(equals + 1));
+        }
+        return query;
+    }
+
+    private static String etag(byte[] content) {
+        return "\"" + Checksums.toHex(Checksums.newSha256().digest(content)).substring(0, 32) + "\"";
+    }
+
+    private static String bucketOf(String objectPath) {
+        return objectPath.substring(0, objectPath.indexOf('/'));
+    }
+
+    private static String keyOf(String objectPath) {
+        return objectPath.substring(objectPath.indexOf('/') + 1);
+    }
+}
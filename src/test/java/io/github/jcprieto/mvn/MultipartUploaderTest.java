@@ -0,0 +1,228 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.checksums.SdkChecksum;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@ExtendWith(MockitoExtension.class)
+public class MultipartUploaderTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @TempDir
+    Path tempDir;
+
+    private static String read(RequestBody body) throws IOException {
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("MultipartUploader -> Divide el archivo en partes leídas por posición")
+    public void uploadSplitsFileIntoPartsTest() throws IOException {
+        File file = Files.write(tempDir.resolve("artifact.war"), "0123456789".getBytes(StandardCharsets.UTF_8)).toFile();
+        Map<Integer, String> bodies = new ConcurrentHashMap<>();
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    UploadPartRequest request = invocation.getArgument(0);
+                    bodies.put(request.partNumber(), read(invocation.getArgument(1)));
+                    return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+                });
+        Mockito.when(s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        MultipartUploader uploader = new MultipartUploader(s3Client, new SystemStreamLog(), 4, 3);
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder().bucket("bucket").key("folder/artifact.war").build();
+
+        Assertions.assertNotNull(uploader.upload(request, file, new ProgressTracker(new SystemStreamLog(), file.length())));
+
+        Assertions.assertEquals("0123", bodies.get(1));
+        Assertions.assertEquals("4567", bodies.get(2));
+        Assertions.assertEquals("89", bodies.get(3));
+        ArgumentCaptor<CompleteMultipartUploadRequest> captor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.verify(s3Client).completeMultipartUpload(captor.capture());
+        List<CompletedPart> parts = captor.getValue().multipartUpload().parts();
+        Assertions.assertEquals(3, parts.size());
+        Assertions.assertEquals("etag-3", parts.get(2).eTag());
+    }
+
+    @Test
+    @DisplayName("MultipartUploader -> Ajusta el tamaño de parte a los límites de S3")
+    public void effectivePartSizeTest() {
+        Assertions.assertEquals(MultipartUploader.MIN_PART_SIZE, MultipartUploader.effectivePartSize(1024, 1));
+        long huge = 200L * 1024 * 1024 * 1024;
+        Assertions.assertTrue(MultipartUploader.effectivePartSize(huge, MultipartUploader.MIN_PART_SIZE) * MultipartUploader.MAX_PARTS >= huge);
+    }
+
+    @Test
+    @DisplayName("MultipartUploader -> Reanuda desde el checkpoint subiendo solo las partes que faltan")
+    public void uploadResumesFromCheckpointTest() throws IOException {
+        File file = Files.write(tempDir.resolve("artifact.war"), "0123456789".getBytes(StandardCharsets.UTF_8)).toFile();
+        File checkpointFile = tempDir.resolve("checkpoints").resolve("artifact.properties").toFile();
+        UploadCheckpoint previous = new UploadCheckpoint(checkpointFile, "bucket", "folder/artifact.war", file, 4);
+        previous.setUploadId("upload-id");
+        previous.partCompleted(1, "etag-1");
+        previous.partCompleted(2, "etag-2");
+        Mockito.when(s3Client.listParts(Mockito.any(ListPartsRequest.class)))
+                .thenReturn(ListPartsResponse.builder()
+                        .parts(Part.builder().partNumber(1).eTag("etag-1").build(),
+                                Part.builder().partNumber(2).eTag("etag-2").build())
+                        .isTruncated(false)
+                        .build());
+        ArgumentCaptor<UploadPartRequest> partCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
+        Mockito.when(s3Client.uploadPart(partCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag-3").build());
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.when(s3Client.completeMultipartUpload(completeCaptor.capture()))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        MultipartUploader uploader = new MultipartUploader(s3Client, new SystemStreamLog(), 4, 2);
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder().bucket("bucket").key("folder/artifact.war").build();
+
+        Assertions.assertNotNull(uploader.upload(request, file, null, checkpointFile));
+
+        Mockito.verify(s3Client, Mockito.never()).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+        Assertions.assertEquals(1, partCaptor.getAllValues().size());
+        Assertions.assertEquals(3, partCaptor.getValue().partNumber());
+        Assertions.assertEquals("upload-id", completeCaptor.getValue().uploadId());
+        Assertions.assertEquals(3, completeCaptor.getValue().multipartUpload().parts().size());
+        Assertions.assertFalse(checkpointFile.exists());
+    }
+
+    @Test
+    @DisplayName("MultipartUploader -> Aborta la subida previa si el archivo ha cambiado")
+    public void uploadAbortsStaleCheckpointTest() throws IOException {
+        File file = Files.write(tempDir.resolve("artifact.war"), "0123456789".getBytes(StandardCharsets.UTF_8)).toFile();
+        File checkpointFile = tempDir.resolve("checkpoints").resolve("artifact.properties").toFile();
+        UploadCheckpoint previous = new UploadCheckpoint(checkpointFile, "bucket", "folder/artifact.war", file, 4);
+        previous.setUploadId("stale-id");
+        previous.partCompleted(1, "etag-1");
+        Assertions.assertTrue(file.setLastModified(file.lastModified() - 60_000));
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("new-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        Mockito.when(s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        ArgumentCaptor<AbortMultipartUploadRequest> abortCaptor = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        MultipartUploader uploader = new MultipartUploader(s3Client, new SystemStreamLog(), 4, 2);
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder().bucket("bucket").key("folder/artifact.war").build();
+
+        Assertions.assertNotNull(uploader.upload(request, file, null, checkpointFile));
+
+        Mockito.verify(s3Client).abortMultipartUpload(abortCaptor.capture());
+        Assertions.assertEquals("stale-id", abortCaptor.getValue().uploadId());
+        Mockito.verify(s3Client, Mockito.times(3)).uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("MultipartUploader -> Conserva el checkpoint cuando falla una parte")
+    public void uploadKeepsCheckpointOnFailureTest() throws IOException {
+        File file = Files.write(tempDir.resolve("artifact.war"), "0123456789".getBytes(StandardCharsets.UTF_8)).toFile();
+        File checkpointFile = tempDir.resolve("checkpoints").resolve("artifact.properties").toFile();
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().message("Error").build());
+        MultipartUploader uploader = new MultipartUploader(s3Client, new SystemStreamLog(), 4, 1);
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder().bucket("bucket").key("folder/artifact.war").build();
+
+        Assertions.assertThrows(S3Exception.class, () -> uploader.upload(request, file, null, checkpointFile));
+
+        Mockito.verify(s3Client, Mockito.never()).abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+        Assertions.assertEquals("upload-id", UploadCheckpoint.load(checkpointFile).uploadId());
+    }
+
+    @Test
+    @DisplayName("MultipartUploader -> Calcula el CRC32C del objeto completo combinando las partes")
+    public void uploadComputesFullObjectCrc32cTest() throws IOException {
+        byte[] content = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+        File file = Files.write(tempDir.resolve("artifact.war"), content).toFile();
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    read(invocation.getArgument(1));
+                    return UploadPartResponse.builder().eTag("etag").build();
+                });
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.when(s3Client.completeMultipartUpload(completeCaptor.capture()))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        MultipartUploader uploader = new MultipartUploader(s3Client, new SystemStreamLog(), 7, 3, ChecksumAlgorithm.CRC32_C);
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder().bucket("bucket").key("folder/artifact.war").build();
+
+        Assertions.assertNotNull(uploader.upload(request, file, null));
+
+        SdkChecksum expected = Checksums.newChecksum(ChecksumAlgorithm.CRC32_C);
+        expected.update(content, 0, content.length);
+        Assertions.assertEquals(Checksums.toBase64(expected.getChecksumBytes()), completeCaptor.getValue().checksumCRC32C());
+        Assertions.assertEquals(ChecksumType.FULL_OBJECT, completeCaptor.getValue().checksumType());
+        Assertions.assertArrayEquals(expected.getChecksumBytes(), uploader.objectChecksum());
+        Assertions.assertTrue(completeCaptor.getValue().multipartUpload().parts().stream().allMatch(part -> part.checksumCRC32C() != null));
+    }
+
+    @Test
+    @DisplayName("MultipartUploader -> Reintenta solo la parte limitada por SlowDown")
+    public void uploadRetriesThrottledPartTest() throws IOException {
+        File file = Files.write(tempDir.resolve("artifact.war"), "0123456789".getBytes(StandardCharsets.UTF_8)).toFile();
+        Map<Integer, Integer> attempts = new ConcurrentHashMap<>();
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    UploadPartRequest request = invocation.getArgument(0);
+                    read(invocation.getArgument(1));
+                    if (attempts.merge(request.partNumber(), 1, Integer::sum) == 1 && request.partNumber() == 2) {
+                        throw S3Exception.builder()
+                                .statusCode(503)
+                                .awsErrorDetails(AwsErrorDetails.builder().errorCode("SlowDown").build())
+                                .build();
+                    }
+                    return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+                });
+        Mockito.when(s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        UploadRetryPolicy retryPolicy = new UploadRetryPolicy(new SystemStreamLog(), 3, 1, 5, true);
+        MultipartUploader uploader = new MultipartUploader(s3Client, new SystemStreamLog(), 4, 3, null, retryPolicy);
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder().bucket("bucket").key("folder/artifact.war").build();
+
+        Assertions.assertNotNull(uploader.upload(request, file, null));
+
+        Assertions.assertEquals(1, attempts.get(1));
+        Assertions.assertEquals(2, attempts.get(2));
+        Assertions.assertEquals(1, attempts.get(3));
+        Assertions.assertEquals(1, retryPolicy.retries());
+        Mockito.verify(s3Client).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ProgressTrackerTest {
+
+    private static void readConcurrently(ProgressTracker tracker, int threads, int chunksPerThread, int chunkSize)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < chunksPerThread; i++) {
+                    tracker.onBytesRead(chunkSize);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("ProgressTracker -> No repite porcentajes con lectores concurrentes")
+    public void percentageModeDoesNotDuplicateLinesTest() throws InterruptedException {
+        CapturingLog log = new CapturingLog();
+        ProgressTracker tracker = new ProgressTracker(log, 8 * 1000 * 100);
+        readConcurrently(tracker, 8, 1000, 100);
+        Assertions.assertEquals(8 * 1000 * 100, tracker.transferredBytes());
+        Assertions.assertEquals(new HashSet<>(log.lines).size(), log.lines.size());
+        Assertions.assertEquals(1, log.lines.stream().filter(line -> line.contains("100%")).count());
+        Assertions.assertTrue(log.lines.size() <= 11);
+    }
+
+    @Test
+    @DisplayName("ProgressTracker -> Modo throughput emite por intervalo con MB/s y ETA")
+    public void throughputModeEmitsOnIntervalTest() throws InterruptedException {
+        CapturingLog log = new CapturingLog();
+        ProgressTracker tracker = new ProgressTracker(log, 4 * 500 * 1024, ProgressTracker.Mode.THROUGHPUT, 60_000);
+        readConcurrently(tracker, 4, 500, 1024);
+        Assertions.assertEquals(1, log.lines.size());
+        String line = log.lines.get(0);
+        Assertions.assertTrue(line.startsWith("Upload progress: 100%"), line);
+        Assertions.assertTrue(line.contains("MB/s now") && line.contains("MB/s average") && line.contains("ETA 00:00:00"), line);
+    }
+
+    @Test
+    @DisplayName("ProgressTracker -> Modo throughput indica el límite de ancho de banda")
+    public void throughputModeShowsBandwidthLimitTest() throws InterruptedException {
+        CapturingLog log = new CapturingLog();
+        ProgressTracker tracker = new ProgressTracker(log, 1024, ProgressTracker.Mode.THROUGHPUT, 60_000, 2 * 1024 * 1024);
+        readConcurrently(tracker, 1, 1, 1024);
+        Assertions.assertEquals(1, log.lines.size());
+        Assertions.assertTrue(log.lines.get(0).endsWith("(limited to 2.00 MB/s)"), log.lines.get(0));
+    }
+
+    @Test
+    @DisplayName("ProgressTracker -> Modo porcentaje indica el límite y la velocidad medida")
+    public void percentageModeShowsBandwidthLimitTest() throws InterruptedException {
+        CapturingLog log = new CapturingLog();
+        ProgressTracker tracker = new ProgressTracker(log, 1024, ProgressTracker.Mode.PERCENTAGE, 60_000, 2 * 1024 * 1024);
+        readConcurrently(tracker, 1, 1, 1024);
+        Assertions.assertEquals(1, log.lines.size());
+        String line = log.lines.get(0);
+        Assertions.assertTrue(line.startsWith("Upload progress: 100% (1024/1024 bytes)"), line);
+        Assertions.assertTrue(line.contains("MB/s average") && line.endsWith("(limited to 2.00 MB/s)"), line);
+    }
+
+    @Test
+    @DisplayName("ProgressTracker -> Un reintento descuenta los bytes del intento fallido")
+    public void retriedStreamIsNotCountedTwiceTest(@TempDir Path tempDir) throws IOException {
+        File file = Files.write(tempDir.resolve("artifact.war"), new byte[1024 * 1024]).toFile();
+        CapturingLog log = new CapturingLog();
+        ProgressTracker tracker = new ProgressTracker(log, file.length());
+        FileRegionContentProvider provider = new FileRegionContentProvider(file, 0, file.length(), null, tracker);
+        byte[] buffer = new byte[600 * 1024];
+
+        try (InputStream failed = provider.newStream()) {
+            Assertions.assertEquals(buffer.length, failed.read(buffer));
+        }
+        try (InputStream retried = provider.newStream()) {
+            Assertions.assertEquals(buffer.length, retried.read(buffer));
+            Assertions.assertTrue(tracker.transferredBytes() <= buffer.length);
+            Assertions.assertTrue(log.lines.stream().noneMatch(line -> line.contains("100%")));
+            while (retried.read(buffer) != -1) {
+                // drain
+            }
+        }
+
+        Assertions.assertEquals(file.length(), tracker.transferredBytes());
+        Assertions.assertEquals(1, log.lines.stream().filter(line -> line.contains("100%")).count());
+    }
+
+    private static class CapturingLog extends SystemStreamLog {
+        private final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void info(CharSequence content) {
+            lines.add(content.toString());
+        }
+    }
+}
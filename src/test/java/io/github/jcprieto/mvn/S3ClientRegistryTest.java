@@ -0,0 +1,86 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class S3ClientRegistryTest {
+
+    private static final String PLUGIN_KEY = "io.github.jcprieto:mvn-s3-upload";
+
+    private static MavenProject project(String id, String... goals) {
+        MavenProject project = Mockito.mock(MavenProject.class);
+        Mockito.lenient().when(project.getId()).thenReturn(id);
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("io.github.jcprieto");
+        plugin.setArtifactId("mvn-s3-upload");
+        if (goals.length > 0) {
+            PluginExecution execution = new PluginExecution();
+            execution.setGoals(Arrays.asList(goals));
+            plugin.addExecution(execution);
+        }
+        Mockito.lenient().when(project.getBuildPlugins()).thenReturn(Collections.singletonList(plugin));
+        return project;
+    }
+
+    @Test
+    @DisplayName("S3ClientRegistry -> Cuenta solo los módulos con ejecuciones del plugin")
+    public void expectedExecutionsTest() {
+        MavenProject parent = project("parent");
+        MavenProject web = project("web", "s3uploader");
+
+        Map<String, Integer> expected = S3ClientRegistry.expectedExecutions(Arrays.asList(parent, web), PLUGIN_KEY);
+
+        Assertions.assertEquals(Collections.singletonMap("web", 1), expected);
+    }
+
+    @Test
+    @DisplayName("S3ClientRegistry -> Solo cuenta las ejecuciones de s3uploader")
+    public void expectedExecutionsCountsOnlyUploaderTest() {
+        MavenProject site = project("site", "s3sync");
+        MavenProject web = project("web", "s3uploader", "s3download");
+
+        Map<String, Integer> expected = S3ClientRegistry.expectedExecutions(Arrays.asList(site, web), PLUGIN_KEY);
+
+        Assertions.assertEquals(Collections.singletonMap("web", 1), expected);
+    }
+
+    @Test
+    @DisplayName("S3ClientRegistry -> Reutiliza el cliente y lo cierra tras la última ejecución")
+    public void sharesClientUntilLastExecutionTest() {
+        MavenProject api = project("api", "s3uploader");
+        MavenProject web = project("web", "s3uploader");
+        S3ClientRegistry registry = new S3ClientRegistry(
+                S3ClientRegistry.expectedExecutions(Arrays.asList(api, web), PLUGIN_KEY));
+        S3Client client = Mockito.mock(S3Client.class);
+        AtomicInteger created = new AtomicInteger();
+
+        Assertions.assertSame(client, registry.client("eu-west-3|key", () -> {
+            created.incrementAndGet();
+            return client;
+        }));
+        Assertions.assertFalse(registry.executionFinished(api));
+        Assertions.assertSame(client, registry.client("eu-west-3|key", () -> {
+            created.incrementAndGet();
+            return client;
+        }));
+        Mockito.verify(client, Mockito.never()).close();
+        Assertions.assertTrue(registry.executionFinished(web));
+        registry.close(new SystemStreamLog());
+
+        Assertions.assertEquals(1, created.get());
+        Assertions.assertEquals(0, registry.size());
+        Mockito.verify(client).close();
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@ExtendWith(MockitoExtension.class)
+public class S3DownloadTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private S3Client s3Client;
+
+    private S3Download download;
+    private byte[] content;
+    private final Set<String> ranges = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void init() {
+        download = new S3Download();
+        download.setS3Client(s3Client);
+        download.setAccessKey("accessKey");
+        download.setSecretKey("secretKey");
+        download.setRegion(Region.EU_WEST_3.id());
+        download.setBucket("bucket");
+        download.setPath("releases");
+        download.setArtifact("app.war");
+        download.setDownloadDirectory(tempDir.toFile());
+        download.setDownloadThreads(4);
+        download.setRangeSize(S3Download.MIN_RANGE_SIZE);
+        content = new byte[300 * 1024 + 5];
+        new Random(1).nextBytes(content);
+    }
+
+    private void stubRanges() {
+        Mockito.when(s3Client.getObject(Mockito.any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            Assertions.assertEquals("\"etag\"", request.ifMatch());
+            ranges.add(request.range());
+            String[] bounds = request.range().substring("bytes=".length()).split("-");
+            byte[] slice = Arrays.copyOfRange(content, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1);
+            return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(slice)));
+        });
+    }
+
+    private void stubHead(HeadObjectResponse.Builder head) {
+        Mockito.when(s3Client.headObject(Mockito.any(HeadObjectRequest.class)))
+                .thenReturn(head.contentLength((long) content.length).eTag("\"etag\"").build());
+    }
+
+    private String crc32c(byte[] data) throws Exception {
+        File file = Files.write(tempDir.resolve("expected.bin"), data).toFile();
+        return Checksums.toBase64(Checksums.crc32c(file));
+    }
+
+    @Test
+    @DisplayName("S3Download -> Descarga por rangos en paralelo y verifica el CRC32C del objeto completo")
+    public void downloadsRangesAndVerifiesCrc32cTest() throws Exception {
+        stubHead(HeadObjectResponse.builder().checksumCRC32C(crc32c(content)));
+        stubRanges();
+
+        download.execute();
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(tempDir.resolve("app.war")));
+        Assertions.assertEquals(5, ranges.size());
+        Assertions.assertTrue(ranges.contains("bytes=65536-131071"));
+        Assertions.assertFalse(tempDir.resolve("app.war.part").toFile().exists());
+    }
+
+    @Test
+    @DisplayName("S3Download -> Verifica el SHA-256 guardado en los metadatos")
+    public void downloadsAndVerifiesSha256MetadataTest() throws Exception {
+        String sha256 = Checksums.toHex(Checksums.newSha256().digest(content));
+        stubHead(HeadObjectResponse.builder().metadata(Collections.singletonMap(Checksums.SHA256_METADATA_KEY, sha256)));
+        stubRanges();
+
+        download.execute();
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(tempDir.resolve("app.war")));
+    }
+
+    @Test
+    @DisplayName("S3Download -> No descarga si el fichero local ya coincide")
+    public void skipsMatchingLocalFileTest() throws Exception {
+        stubHead(HeadObjectResponse.builder().checksumCRC32C(crc32c(content)));
+        Files.write(tempDir.resolve("app.war"), content);
+
+        download.execute();
+
+        Mockito.verify(s3Client, Mockito.never()).getObject(Mockito.any(GetObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("S3Download -> Falla y conserva el fichero anterior si el checksum no coincide")
+    public void failsOnChecksumMismatchTest() throws Exception {
+        stubHead(HeadObjectResponse.builder().checksumCRC32C(crc32c(new byte[content.length])));
+        stubRanges();
+        Files.write(tempDir.resolve("app.war"), new byte[]{1, 2, 3});
+
+        Assertions.assertThrows(MojoFailureException.class, download::execute);
+
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(tempDir.resolve("app.war")));
+        Assertions.assertFalse(tempDir.resolve("app.war.part").toFile().exists());
+    }
+
+    @Test
+    @DisplayName("S3Download -> Falla con un error claro si el HEAD no trae Content-Length")
+    public void failsWithoutContentLengthTest() {
+        Mockito.when(s3Client.headObject(Mockito.any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().eTag("\"etag\"").build());
+
+        MojoFailureException e = Assertions.assertThrows(MojoFailureException.class, download::execute);
+
+        Assertions.assertTrue(e.getCause().getMessage().contains("Content-Length"), e.getCause().getMessage());
+        Mockito.verify(s3Client, Mockito.never()).getObject(Mockito.any(GetObjectRequest.class));
+    }
+}
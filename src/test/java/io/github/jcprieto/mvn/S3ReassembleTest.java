@@ -0,0 +1,139 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+@ExtendWith(MockitoExtension.class)
+public class S3ReassembleTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private S3Client s3Client;
+
+    private S3Reassemble reassemble;
+    private final Map<String, byte[]> objects = new HashMap<>();
+
+    @BeforeEach
+    public void init() {
+        reassemble = new S3Reassemble();
+        reassemble.setS3Client(s3Client);
+        reassemble.setAccessKey("accessKey");
+        reassemble.setSecretKey("secretKey");
+        reassemble.setRegion(Region.EU_WEST_3.id());
+        reassemble.setBucket("bucket");
+        reassemble.setPath("releases");
+        reassemble.setArtifact("app.war");
+        reassemble.setDownloadDirectory(tempDir.resolve("download").toFile());
+        Mockito.lenient().when(s3Client.getObjectAsBytes(Mockito.any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            String key = invocation.<GetObjectRequest>getArgument(0).key();
+            return ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), objects.get(key));
+        });
+        Mockito.lenient().when(s3Client.getObject(Mockito.any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            String key = invocation.<GetObjectRequest>getArgument(0).key();
+            return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(objects.get(key))));
+        });
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private ChunkManifest publish(byte[] content) throws IOException {
+        File file = Files.write(tempDir.resolve("source.war"), content).toFile();
+        ContentDefinedChunker chunker = new ContentDefinedChunker(16 * 1024);
+        List<ContentDefinedChunker.Chunk> chunks = chunker.chunk(file, 2);
+        ChunkManifest manifest = new ChunkManifest(content.length, chunker.averageSize(), "releases/chunks/", chunks);
+        for (ContentDefinedChunker.Chunk chunk : chunks) {
+            objects.put(manifest.chunkKey(chunk), Arrays.copyOfRange(content, (int) chunk.offset,
+                    (int) chunk.offset + chunk.length));
+        }
+        objects.put("releases/app.war" + ChunkManifest.SUFFIX, manifest.toBytes());
+        return manifest;
+    }
+
+    @Test
+    @DisplayName("S3Reassemble -> Reconstruye el artifact a partir del manifiesto y sus trozos")
+    public void reassemblesArtifactTest() throws Exception {
+        byte[] content = randomBytes(300 * 1024, 1);
+        ChunkManifest manifest = publish(content);
+
+        reassemble.execute();
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(tempDir.resolve("download/app.war")));
+        Mockito.verify(s3Client).getObjectAsBytes(Mockito.any(GetObjectRequest.class));
+        Mockito.verify(s3Client, Mockito.times(manifest.chunks().size())).getObject(Mockito.any(GetObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("S3Reassemble -> Reutiliza los trozos de la copia local anterior")
+    public void reusesLocalChunksTest() throws Exception {
+        byte[] previous = randomBytes(300 * 1024, 2);
+        byte[] content = previous.clone();
+        System.arraycopy(randomBytes(64, 3), 0, content, 150 * 1024, 64);
+        Files.createDirectories(tempDir.resolve("download"));
+        Files.write(tempDir.resolve("download/app.war"), previous);
+        ChunkManifest manifest = publish(content);
+
+        reassemble.execute();
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(tempDir.resolve("download/app.war")));
+        int downloads = Mockito.mockingDetails(s3Client).getInvocations().size();
+        Assertions.assertTrue(downloads <= 3, downloads + " requests for " + manifest.chunks().size() + " chunks");
+    }
+
+    @Test
+    @DisplayName("S3Reassemble -> Falla sin tocar el fichero anterior si un trozo no coincide con su hash")
+    public void failsOnCorruptChunkTest() throws Exception {
+        byte[] content = randomBytes(100 * 1024, 4);
+        ChunkManifest manifest = publish(content);
+        objects.put(manifest.chunkKey(manifest.chunks().get(0)), new byte[manifest.chunks().get(0).length]);
+
+        Assertions.assertThrows(MojoFailureException.class, reassemble::execute);
+        Assertions.assertFalse(tempDir.resolve("download/app.war").toFile().exists());
+        Assertions.assertFalse(tempDir.resolve("download/app.war.part").toFile().exists());
+    }
+
+    @Test
+    @DisplayName("S3Reassemble -> Falla si un trozo llega incompleto")
+    public void failsOnTruncatedChunkTest() throws Exception {
+        byte[] content = randomBytes(100 * 1024, 5);
+        ChunkManifest manifest = publish(content);
+        ContentDefinedChunker.Chunk first = manifest.chunks().get(0);
+        objects.put(manifest.chunkKey(first), Arrays.copyOf(objects.get(manifest.chunkKey(first)), first.length - 1));
+
+        Assertions.assertThrows(MojoFailureException.class, reassemble::execute);
+        Assertions.assertFalse(tempDir.resolve("download/app.war.part").toFile().exists());
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositorySystemSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@ExtendWith(MockitoExtension.class)
+public class S3SyncTest {
+
+    @TempDir
+    Path site;
+
+    @Mock
+    private S3Client s3Client;
+
+    private S3Sync sync;
+
+    @BeforeEach
+    public void init() throws IOException {
+        Files.write(site.resolve("index.html"), "<html/>".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(site.resolve("css"));
+        Files.write(site.resolve("css/site.css"), "body {}".getBytes(StandardCharsets.UTF_8));
+        Files.write(site.resolve("new.html"), "new".getBytes(StandardCharsets.UTF_8));
+        sync = new S3Sync();
+        sync.setS3Client(s3Client);
+        sync.setDirectory(site.toFile());
+        sync.setAccessKey("accessKey");
+        sync.setSecretKey("secretKey");
+        sync.setRegion(Region.EU_WEST_3.id());
+        sync.setBucket("bucket");
+        sync.setPath("docs");
+    }
+
+    private static S3Object remote(String key, File file, String eTag) {
+        return S3Object.builder().key(key).size(file.length()).eTag(eTag).lastModified(Instant.now()).build();
+    }
+
+    private static String md5ETag(File file) throws IOException {
+        return "\"" + Checksums.toHex(Checksums.md5(file)) + "\"";
+    }
+
+    private void stubListing(boolean extraRemote) throws IOException {
+        File index = site.resolve("index.html").toFile();
+        File css = site.resolve("css/site.css").toFile();
+        ListObjectsV2Response first = ListObjectsV2Response.builder()
+                .contents(remote("docs/index.html", index, md5ETag(index)))
+                .isTruncated(true)
+                .nextContinuationToken("page-2")
+                .build();
+        ListObjectsV2Response.Builder second = ListObjectsV2Response.builder().isTruncated(false);
+        if (extraRemote) {
+            second.contents(remote("docs/css/site.css", css, "\"00000000000000000000000000000000\""),
+                    S3Object.builder().key("docs/old.html").size(3L).eTag("\"x\"").build());
+        } else {
+            second.contents(remote("docs/css/site.css", css, "\"00000000000000000000000000000000\""));
+        }
+        Mockito.when(s3Client.listObjectsV2(Mockito.any(ListObjectsV2Request.class)))
+                .thenReturn(first, second.build());
+    }
+
+    @Test
+    @DisplayName("S3Sync -> Sube solo los ficheros nuevos o modificados paginando el listado")
+    public void uploadsOnlyChangedFilesTest() throws Exception {
+        stubListing(false);
+        ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.when(s3Client.putObject(putCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+
+        sync.execute();
+
+        Set<String> uploaded = putCaptor.getAllValues().stream().map(PutObjectRequest::key).collect(Collectors.toSet());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("docs/css/site.css", "docs/new.html")), uploaded);
+        ArgumentCaptor<ListObjectsV2Request> listCaptor = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        Mockito.verify(s3Client, Mockito.times(2)).listObjectsV2(listCaptor.capture());
+        Assertions.assertEquals("page-2", listCaptor.getAllValues().get(1).continuationToken());
+        Mockito.verify(s3Client, Mockito.never()).deleteObjects(Mockito.any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    @DisplayName("S3Sync -> Borra los objetos remotos que ya no existen cuando se configura")
+    public void deletesRemovedObjectsTest() throws Exception {
+        stubListing(true);
+        sync.setDeleteRemoved(true);
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        ArgumentCaptor<DeleteObjectsRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        Mockito.when(s3Client.deleteObjects(deleteCaptor.capture()))
+                .thenReturn(DeleteObjectsResponse.builder().build());
+
+        sync.execute();
+
+        Assertions.assertEquals(1, deleteCaptor.getValue().delete().objects().size());
+        Assertions.assertEquals("docs/old.html", deleteCaptor.getValue().delete().objects().get(0).key());
+    }
+
+    @Test
+    @DisplayName("S3Sync -> Compara por fecha cuando el ETag no es un MD5")
+    public void comparesByTimestampForMultipartETagTest() throws IOException {
+        File index = site.resolve("index.html").toFile();
+        S3Object newer = S3Object.builder().size(index.length()).eTag("\"abc-2\"")
+                .lastModified(Instant.ofEpochMilli(index.lastModified() + 1000)).build();
+        S3Object older = newer.toBuilder().lastModified(Instant.ofEpochMilli(index.lastModified() - 1000)).build();
+
+        Assertions.assertTrue(S3Sync.isUnchanged(index, newer));
+        Assertions.assertFalse(S3Sync.isUnchanged(index, older));
+    }
+
+    @Test
+    @DisplayName("S3Sync -> Error cuando el directorio no existe")
+    public void failsWhenDirectoryMissingTest() {
+        sync.setDirectory(site.resolve("missing").toFile());
+        Assertions.assertThrows(MojoExecutionException.class, sync::execute);
+    }
+
+    @Test
+    @DisplayName("S3Sync -> Sube con el Content-Type de la extensión y los permisos configurados")
+    public void uploadsWithContentTypeAndGrantsTest() throws Exception {
+        stubListing(false);
+        sync.setCannonicalIds(new String[]{" canonical-id "});
+        ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.when(s3Client.putObject(putCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+
+        sync.execute();
+
+        Map<String, String> contentTypes = putCaptor.getAllValues().stream()
+                .collect(Collectors.toMap(PutObjectRequest::key, PutObjectRequest::contentType));
+        Assertions.assertEquals("text/html; charset=utf-8", contentTypes.get("docs/new.html"));
+        Assertions.assertEquals("text/css; charset=utf-8", contentTypes.get("docs/css/site.css"));
+        for (PutObjectRequest request : putCaptor.getAllValues()) {
+            Assertions.assertEquals("id=\"canonical-id\"", request.grantRead());
+        }
+    }
+
+    @Test
+    @DisplayName("S3Sync -> Usa el cliente compartido de la sesión y lo cierra al terminar la sesión")
+    public void sharesSessionClientTest() throws Exception {
+        stubListing(false);
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        AtomicInteger built = new AtomicInteger();
+        S3Sync shared = new S3Sync() {
+            @Override
+            protected S3Client buildS3Client(String clientRegion) {
+                built.incrementAndGet();
+                return s3Client;
+            }
+        };
+        shared.setDirectory(site.toFile());
+        shared.setAccessKey("accessKey");
+        shared.setSecretKey("secretKey");
+        shared.setRegion(Region.EU_WEST_3.id());
+        shared.setBucket("bucket");
+        shared.setPath("docs");
+        MavenSession session = Mockito.mock(MavenSession.class);
+        RepositorySystemSession repositorySession = Mockito.mock(RepositorySystemSession.class);
+        Mockito.when(repositorySession.getData()).thenReturn(new DefaultSessionData());
+        Mockito.when(session.getRepositorySession()).thenReturn(repositorySession);
+        Mockito.when(session.getRequest()).thenReturn(new DefaultMavenExecutionRequest());
+        PluginDescriptor plugin = new PluginDescriptor();
+        plugin.setGroupId("io.github.jcprieto");
+        plugin.setArtifactId("mvn-s3-upload");
+        shared.setSession(session);
+        shared.setPlugin(plugin);
+
+        shared.execute();
+
+        S3ClientRegistry registry = S3ClientRegistry.forSession(session, plugin.getPluginLookupKey());
+        Assertions.assertEquals(1, built.get());
+        Assertions.assertEquals(1, registry.size());
+        Mockito.verify(s3Client, Mockito.never()).close();
+
+        ExecutionEvent event = Mockito.mock(ExecutionEvent.class);
+        session.getRequest().getExecutionListener().sessionEnded(event);
+
+        Mockito.verify(s3Client).close();
+        Assertions.assertEquals(0, registry.size());
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class S3UploaderIT {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalS3Server server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new LocalS3Server();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private S3Uploader uploader(byte[] content) throws IOException {
+        Files.write(tempDir.resolve("app.war"), content);
+        MavenProject project = new MavenProject();
+        project.setName("App");
+        S3Uploader uploader = new S3Uploader();
+        uploader.setProject(project);
+        uploader.setOutputDirectory(tempDir.toString());
+        uploader.setWarName("app");
+        uploader.setExtension("war");
+        uploader.setAccessKey("accessKey");
+        uploader.setSecretKey("secretKey");
+        uploader.setRegion("us-east-1");
+        uploader.setBucket("artifacts");
+        uploader.setPath("releases/");
+        uploader.setEndpoint(server.endpoint());
+        uploader.setPathStyleAccess(true);
+        return uploader;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(7).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    @DisplayName("S3Uploader IT -> Sube el artifact al endpoint local con acceso path-style")
+    public void uploadsToLocalEndpointTest() throws Exception {
+        byte[] content = randomBytes(64 * 1024);
+        S3Uploader uploader = uploader(content);
+        uploader.setChecksumAlgorithm("CRC32C");
+        uploader.setCacheControl("no-cache");
+
+        uploader.execute();
+
+        LocalS3Server.StoredObject stored = server.object("artifacts", "releases/app.war");
+        Assertions.assertNotNull(stored, server.requests().toString());
+        Assertions.assertArrayEquals(content, stored.content);
+        Assertions.assertEquals("no-cache", stored.headers.get("cache-control"));
+        Assertions.assertTrue(server.requests().contains("PUT /artifacts/releases/app.war"), server.requests().toString());
+        Assertions.assertTrue(new File(tempDir.toFile(), "s3-upload-report.json").isFile());
+    }
+
+    @Test
+    @DisplayName("S3Uploader IT -> No vuelve a subir un artifact sin cambios")
+    public void skipsUnchangedArtifactTest() throws Exception {
+        byte[] content = randomBytes(4 * 1024);
+        S3Uploader first = uploader(content);
+        first.setSkipUnchanged(true);
+        first.execute();
+        S3Uploader second = uploader(content);
+        second.setSkipUnchanged(true);
+
+        second.execute();
+
+        List<String> puts = server.requests().stream()
+                .filter(request -> request.startsWith("PUT "))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(1, puts.size(), puts.toString());
+        Assertions.assertNotNull(server.object("artifacts", "releases/app.war").headers.get("x-amz-meta-sha256"));
+    }
+
+    @Test
+    @DisplayName("S3Uploader IT -> Reensambla una subida multipart en el endpoint local")
+    public void uploadsMultipartTest() throws Exception {
+        byte[] content = randomBytes(11 * 1024 * 1024);
+        S3Uploader uploader = uploader(content);
+        uploader.setMultipartThreshold(5L * 1024 * 1024);
+        uploader.setPartSize(5L * 1024 * 1024);
+
+        uploader.execute();
+
+        Assertions.assertArrayEquals(content, server.object("artifacts", "releases/app.war").content);
+        long parts = server.requests().stream().filter(request -> request.contains("partNumber")).count();
+        Assertions.assertEquals(3, parts);
+    }
+
+    @Test
+    @DisplayName("S3Uploader IT -> Empaqueta un directorio en streaming sin fichero temporal")
+    public void streamsPackedDirectoryTest() throws Exception {
+        Path classes = Files.createDirectories(tempDir.resolve("classes/pkg"));
+        Files.write(classes.resolve("Big.class"), randomBytes(7 * 1024 * 1024));
+        Files.write(classes.resolve("Small.class"), randomBytes(1024));
+        S3Uploader uploader = uploader(new byte[]{1});
+        uploader.setPackDirectory(tempDir.resolve("classes").toFile());
+        uploader.setPartSize(5L * 1024 * 1024);
+
+        uploader.execute();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        TarPacker.pack(tempDir.resolve("classes"), expected);
+        LocalS3Server.StoredObject stored = server.object("artifacts", "releases/classes.tar");
+        Assertions.assertNotNull(stored, server.requests().toString());
+        Assertions.assertArrayEquals(expected.toByteArray(), stored.content);
+        long parts = server.requests().stream().filter(request -> request.contains("partNumber")).count();
+        Assertions.assertEquals(2, parts);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertEquals(0, files.filter(file -> file.toString().endsWith(".tar")).count());
+        }
+    }
+
+    @Test
+    @DisplayName("S3Uploader IT -> Rechaza la aceleración junto a un endpoint propio")
+    public void rejectsAccelerationWithEndpointTest() throws IOException {
+        S3Uploader uploader = uploader(new byte[]{1});
+        uploader.setPathStyleAccess(false);
+        uploader.setAccelerate(true);
+
+        Assertions.assertThrows(MojoExecutionException.class, uploader::execute);
+        Assertions.assertTrue(server.requests().isEmpty());
+    }
+}
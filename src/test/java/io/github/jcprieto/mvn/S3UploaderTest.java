@@ -1,10 +1,20 @@
 package io.github.jcprieto.mvn;
 
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositorySystemSession;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -16,13 +26,27 @@ import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 @ExtendWith(MockitoExtension.class)
 public class S3UploaderTest {
@@ -35,6 +59,7 @@ public class S3UploaderTest {
     private MavenProject project;
     @Mock
     private S3Client s3Client;
+    private MavenSession reactorSession;
 
     private static void createNewFile() {
         try {
@@ -100,9 +125,8 @@ public class S3UploaderTest {
         s3Uploader.setPath("folder/");
         Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
                 .thenReturn(PutObjectResponse.builder().build());
-        Mockito.when(s3Client.putObjectAcl(Mockito.any(PutObjectAclRequest.class)))
-                .thenReturn(PutObjectAclResponse.builder().build());
         Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Mockito.verify(s3Client, Mockito.never()).putObjectAcl(Mockito.any(PutObjectAclRequest.class));
     }
 
     @Test
@@ -118,13 +142,12 @@ public class S3UploaderTest {
         s3Uploader.setCannonicalIds(new String[]{" id1 ", "id2"});
         s3Uploader.setBucket("bucket");
         s3Uploader.setPath("folder/");
-        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
                 .thenReturn(PutObjectResponse.builder().build());
-        ArgumentCaptor<PutObjectAclRequest> aclCaptor = ArgumentCaptor.forClass(PutObjectAclRequest.class);
-        Mockito.when(s3Client.putObjectAcl(aclCaptor.capture()))
-                .thenReturn(PutObjectAclResponse.builder().build());
         Assertions.assertDoesNotThrow(s3Uploader::execute);
-        Assertions.assertEquals("id=\"id1\",id=\"id2\"", aclCaptor.getValue().grantRead());
+        Assertions.assertEquals("id=\"id1\",id=\"id2\"", requestCaptor.getValue().grantRead());
+        Mockito.verify(s3Client, Mockito.never()).putObjectAcl(Mockito.any(PutObjectAclRequest.class));
     }
 
     @Test
@@ -182,8 +205,6 @@ public class S3UploaderTest {
         ArgumentCaptor<RequestBody> bodyCaptor = ArgumentCaptor.forClass(RequestBody.class);
         Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), bodyCaptor.capture()))
                 .thenReturn(PutObjectResponse.builder().build());
-        Mockito.when(s3Client.putObjectAcl(Mockito.any(PutObjectAclRequest.class)))
-                .thenReturn(PutObjectAclResponse.builder().build());
         Assertions.assertDoesNotThrow(s3Uploader::execute);
         Assertions.assertEquals(testFile.length(), bodyCaptor.getValue().optionalContentLength().orElse(-1L));
     }
@@ -242,7 +263,7 @@ public class S3UploaderTest {
     }
 
     @Test
-    @DisplayName("S3Uploader -> SdkClientException al añadirle permisos al archivo subido")
+    @DisplayName("S3Uploader -> SdkClientException al añadirle permisos en modo legacy")
     public void executeSdkClientExceptionAclTest() {
         s3Uploader.setOutputDirectory(testFile.getParent());
         String[] filename = testFile.getName().split("\\.");
@@ -254,6 +275,7 @@ public class S3UploaderTest {
         s3Uploader.setCannonicalIds(new String[]{"cannonicalIds"});
         s3Uploader.setBucket("bucket");
         s3Uploader.setPath("folder/");
+        s3Uploader.setLegacyAcl(true);
         Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
                 .thenReturn(PutObjectResponse.builder().build());
         Mockito.when(s3Client.putObjectAcl(Mockito.any(PutObjectAclRequest.class)))
@@ -262,7 +284,7 @@ public class S3UploaderTest {
     }
 
     @Test
-    @DisplayName("S3Uploader -> AmazonServiceException al añadirle permisos al archivo subido")
+    @DisplayName("S3Uploader -> AmazonServiceException al añadirle permisos en modo legacy")
     public void executeAmazonServiceExceptionAclTest() {
         s3Uploader.setOutputDirectory(testFile.getParent());
         String[] filename = testFile.getName().split("\\.");
@@ -274,6 +296,7 @@ public class S3UploaderTest {
         s3Uploader.setCannonicalIds(new String[]{"cannonicalIds"});
         s3Uploader.setBucket("bucket");
         s3Uploader.setPath("folder/");
+        s3Uploader.setLegacyAcl(true);
         Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
                 .thenReturn(PutObjectResponse.builder().build());
         Mockito.when(s3Client.putObjectAcl(Mockito.any(PutObjectAclRequest.class)))
@@ -348,4 +371,880 @@ public class S3UploaderTest {
         Assertions.assertEquals("folder/nested/" + testFile.getName(), requestCaptor.getValue().key());
     }
 
+    @Test
+    @DisplayName("S3Uploader -> Usa subida multipart cuando se supera el umbral")
+    public void executeMultipartAboveThresholdTest() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setMultipartThreshold(1);
+        s3Uploader.setShowProgress(true);
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag-1").build());
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.when(s3Client.completeMultipartUpload(completeCaptor.capture()))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Assertions.assertEquals("folder/" + testFile.getName(), completeCaptor.getValue().key());
+        Assertions.assertEquals(1, completeCaptor.getValue().multipartUpload().parts().size());
+        Mockito.verify(s3Client, Mockito.never()).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Aborta la subida multipart cuando falla una parte")
+    public void executeMultipartAbortsOnPartFailureTest() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setMultipartThreshold(1);
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().message("Error").build());
+        Assertions.assertThrows(MojoFailureException.class, () -> s3Uploader.execute());
+        Mockito.verify(s3Client).abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Sube artifact principal, adjuntos y fileset en paralelo")
+    public void executeUploadsAllArtifactsTest() throws IOException {
+        Path outputDir = testFile.toPath().getParent();
+        Path sources = Files.write(outputDir.resolve("testfile-sources.jar"), "sources".getBytes(StandardCharsets.UTF_8));
+        Path checksum = Files.write(outputDir.resolve("testfile.jar.sha256"), "hash".getBytes(StandardCharsets.UTF_8));
+        Path excluded = Files.write(outputDir.resolve("ignored.sha256"), "ignored".getBytes(StandardCharsets.UTF_8));
+        try {
+            s3Uploader.setOutputDirectory(testFile.getParent());
+            String[] filename = testFile.getName().split("\\.");
+            s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+            s3Uploader.setExtension(filename[filename.length - 1]);
+            s3Uploader.setAccessKey("accessKey");
+            s3Uploader.setSecretKey("secretKey");
+            s3Uploader.setRegion(Region.EU_WEST_3.id());
+            s3Uploader.setBucket("bucket");
+            s3Uploader.setPath("folder/");
+            s3Uploader.setUploadAllArtifacts(true);
+            s3Uploader.setIncludes(new String[]{"*.sha256"});
+            s3Uploader.setExcludes(new String[]{"ignored.*"});
+            s3Uploader.setUploadThreads(2);
+            Artifact attached = Mockito.mock(Artifact.class);
+            Mockito.when(attached.getFile()).thenReturn(sources.toFile());
+            Mockito.when(project.getAttachedArtifacts()).thenReturn(Collections.singletonList(attached));
+            ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+            Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
+                    .thenReturn(PutObjectResponse.builder().build());
+            Assertions.assertDoesNotThrow(s3Uploader::execute);
+            Set<String> keys = requestCaptor.getAllValues().stream().map(PutObjectRequest::key).collect(Collectors.toSet());
+            Assertions.assertEquals(new HashSet<>(Arrays.asList("folder/testfile.jar", "folder/testfile-sources.jar",
+                    "folder/testfile.jar.sha256")), keys);
+        } finally {
+            Files.deleteIfExists(sources);
+            Files.deleteIfExists(checksum);
+            Files.deleteIfExists(excluded);
+        }
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Falla el lote cuando alguna subida falla")
+    public void executeUploadAllFailsWhenOneUploadFailsTest() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setUploadAllArtifacts(true);
+        Mockito.when(project.getAttachedArtifacts()).thenReturn(Collections.emptyList());
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().message("Error").build());
+        Assertions.assertThrows(MojoFailureException.class, () -> s3Uploader.execute());
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Omite la subida cuando el hash remoto coincide")
+    public void executeSkipsUnchangedArtifactTest() throws IOException {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setCannonicalIds(new String[]{"cannonicalIds"});
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setSkipUnchanged(true);
+        Mockito.when(s3Client.headObject(Mockito.any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder()
+                        .contentLength(testFile.length())
+                        .metadata(Collections.singletonMap("sha256", Checksums.toHex(Checksums.sha256(testFile))))
+                        .build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Mockito.verify(s3Client, Mockito.never()).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+        Mockito.verify(s3Client, Mockito.never()).putObjectAcl(Mockito.any(PutObjectAclRequest.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Sube y guarda el hash cuando el objeto remoto no existe")
+    public void executeUploadsChangedArtifactWithHashTest() throws IOException {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setSkipUnchanged(true);
+        Mockito.when(s3Client.headObject(Mockito.any(HeadObjectRequest.class)))
+                .thenThrow(NoSuchKeyException.builder().message("Not found").build());
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Assertions.assertEquals(Checksums.toHex(Checksums.sha256(testFile)), requestCaptor.getValue().metadata().get("sha256"));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Calcula el checksum en la misma lectura y escribe el fichero sidecar")
+    public void executeWritesChecksumSidecarTest() throws IOException {
+        File sidecar = new File(testFile.getPath() + ".sha256");
+        try {
+            s3Uploader.setOutputDirectory(testFile.getParent());
+            String[] filename = testFile.getName().split("\\.");
+            s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+            s3Uploader.setExtension(filename[filename.length - 1]);
+            s3Uploader.setAccessKey("accessKey");
+            s3Uploader.setSecretKey("secretKey");
+            s3Uploader.setRegion(Region.EU_WEST_3.id());
+            s3Uploader.setBucket("bucket");
+            s3Uploader.setPath("folder/");
+            s3Uploader.setChecksumAlgorithm("SHA256");
+            ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+            Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
+                    .thenAnswer(invocation -> {
+                        RequestBody body = invocation.getArgument(1);
+                        try (InputStream in = body.contentStreamProvider().newStream()) {
+                            while (in.read(new byte[16]) != -1) {
+                                // consume the body as the SDK would
+                            }
+                        }
+                        return PutObjectResponse.builder().build();
+                    });
+            Assertions.assertDoesNotThrow(s3Uploader::execute);
+            Assertions.assertEquals(ChecksumAlgorithm.SHA256, requestCaptor.getValue().checksumAlgorithm());
+            Assertions.assertEquals(Checksums.toHex(Checksums.sha256(testFile)),
+                    new String(Files.readAllBytes(sidecar.toPath()), StandardCharsets.UTF_8).trim());
+        } finally {
+            Files.deleteIfExists(sidecar.toPath());
+        }
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Error cuando el algoritmo de checksum no es válido")
+    public void executeFailsWhenChecksumAlgorithmInvalid() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setPath("folder/");
+        s3Uploader.setChecksumAlgorithm("MD4");
+        Assertions.assertThrows(MojoExecutionException.class, s3Uploader::execute);
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Reintenta la subida tras un error transitorio")
+    public void executeRetriesTransientPutObjectFailure() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setRetryBaseDelayMillis(1);
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(500).message("Internal error").build())
+                .thenReturn(PutObjectResponse.builder().build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Mockito.verify(s3Client, Mockito.times(2)).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> No reintenta errores no transitorios")
+    public void executeDoesNotRetryClientErrors() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).message("Access denied").build());
+        Assertions.assertThrows(MojoFailureException.class, s3Uploader::execute);
+        Mockito.verify(s3Client).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Comprime con gzip y envía Content-Encoding")
+    public void executeCompressesWithGzip() throws IOException {
+        File tar = new File(testFile.getParentFile(), "compressible.tar");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append("line ").append(i % 10).append('\n');
+        }
+        Files.write(tar.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            s3Uploader.setOutputDirectory(tar.getParent());
+            s3Uploader.setWarName("compressible");
+            s3Uploader.setExtension("tar");
+            s3Uploader.setAccessKey("accessKey");
+            s3Uploader.setSecretKey("secretKey");
+            s3Uploader.setRegion(Region.EU_WEST_3.id());
+            s3Uploader.setBucket("bucket");
+            s3Uploader.setPath("folder/");
+            s3Uploader.setCompression("gzip");
+            ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+            StringBuilder uploaded = new StringBuilder();
+            Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
+                    .thenAnswer(invocation -> {
+                        RequestBody body = invocation.getArgument(1);
+                        Assertions.assertTrue(body.optionalContentLength().orElse(Long.MAX_VALUE) < tar.length());
+                        try (InputStream in = new GZIPInputStream(body.contentStreamProvider().newStream())) {
+                            byte[] buffer = new byte[1024];
+                            int n;
+                            while ((n = in.read(buffer)) != -1) {
+                                uploaded.append(new String(buffer, 0, n, StandardCharsets.UTF_8));
+                            }
+                        }
+                        return PutObjectResponse.builder().build();
+                    });
+            Assertions.assertDoesNotThrow(s3Uploader::execute);
+            Assertions.assertEquals("gzip", requestCaptor.getValue().contentEncoding());
+            Assertions.assertEquals("folder/compressible.tar", requestCaptor.getValue().key());
+            Assertions.assertEquals(content.toString(), uploaded.toString());
+            File[] leftovers = new File(tar.getParentFile(), "s3-upload-compressed").listFiles();
+            Assertions.assertTrue(leftovers == null || leftovers.length == 0);
+        } finally {
+            Files.deleteIfExists(tar.toPath());
+        }
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> No comprime formatos ya comprimidos")
+    public void executeSkipsCompressionForJar() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setCompression("GZIP");
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Assertions.assertNull(requestCaptor.getValue().contentEncoding());
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Con deployAtEnd sube todo el reactor en la última ejecución")
+    public void executeDefersUploadsToEndOfReactor() throws Exception {
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        S3Uploader second = configureReactor();
+        s3Uploader.setDeployAtEnd(true);
+        second.setDeployAtEnd(true);
+
+        s3Uploader.execute();
+        Mockito.verify(s3Client, Mockito.never()).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+        second.execute();
+
+        Set<String> keys = requestCaptor.getAllValues().stream().map(PutObjectRequest::key).collect(Collectors.toSet());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("first/testfile.jar", "second/testfile.jar")), keys);
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Las subidas en segundo plano se esperan al final del reactor")
+    public void executeJoinsBackgroundUploadsAtEndOfReactor() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return PutObjectResponse.builder().build();
+                });
+        S3Uploader second = configureReactor();
+        s3Uploader.setAsyncUpload(true);
+        second.setAsyncUpload(true);
+
+        s3Uploader.execute();
+        release.countDown();
+        second.execute();
+
+        Mockito.verify(s3Client, Mockito.times(2)).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Falla el build si una subida en segundo plano falla")
+    public void executeFailsWhenBackgroundUploadFails() throws Exception {
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).message("Access denied").build())
+                .thenReturn(PutObjectResponse.builder().build());
+        S3Uploader second = configureReactor();
+        s3Uploader.setAsyncUpload(true);
+        second.setAsyncUpload(true);
+
+        s3Uploader.execute();
+        Assertions.assertThrows(MojoFailureException.class, second::execute);
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Las subidas diferidas se envían al terminar la sesión aunque falten ejecuciones")
+    public void executeFlushesDeferredUploadsAtSessionEnd() throws Exception {
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        configureReactor();
+        s3Uploader.setDeployAtEnd(true);
+
+        s3Uploader.execute();
+        Mockito.verify(s3Client, Mockito.never()).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+        MavenSession session = endSession();
+
+        Mockito.verify(s3Client).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+        Assertions.assertFalse(session.getResult().hasExceptions());
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Una subida en segundo plano fallida hace fallar la sesión")
+    public void executeFailsSessionWhenBackgroundUploadFailsAtSessionEnd() throws Exception {
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).message("Access denied").build());
+        configureReactor();
+        s3Uploader.setAsyncUpload(true);
+
+        s3Uploader.execute();
+        MavenSession session = endSession();
+
+        Assertions.assertTrue(session.getResult().hasExceptions());
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Escribe un informe JSON por artifact con tiempos y estado")
+    public void executeWritesJsonReport() throws IOException {
+        File reportFile = new File(testFile.getParentFile(), "s3-upload-report.json");
+        try {
+            s3Uploader.setOutputDirectory(testFile.getParent());
+            String[] filename = testFile.getName().split("\\.");
+            s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+            s3Uploader.setExtension(filename[filename.length - 1]);
+            s3Uploader.setAccessKey("accessKey");
+            s3Uploader.setSecretKey("secretKey");
+            s3Uploader.setRegion(Region.EU_WEST_3.id());
+            s3Uploader.setBucket("bucket");
+            s3Uploader.setPath("folder/");
+            s3Uploader.setRetryBaseDelayMillis(1);
+            Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                    .thenThrow(S3Exception.builder().statusCode(503).message("Slow down").build())
+                    .thenAnswer(invocation -> {
+                        RequestBody body = invocation.getArgument(1);
+                        body.contentStreamProvider().newStream().close();
+                        return PutObjectResponse.builder().build();
+                    });
+            Assertions.assertDoesNotThrow(s3Uploader::execute);
+            String json = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+            Assertions.assertTrue(json.contains("\"key\": \"folder/testfile.jar\""), json);
+            Assertions.assertTrue(json.contains("\"status\": \"UPLOADED\""), json);
+            Assertions.assertTrue(json.contains("\"retries\": 1"), json);
+            Assertions.assertTrue(json.contains("\"requestLatencyMicros\": {\"count\": 2"), json);
+            Assertions.assertFalse(json.contains("\"timeToFirstByteMillis\": -1"), json);
+        } finally {
+            Files.deleteIfExists(reportFile.toPath());
+        }
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> El informe CSV marca los artifacts sin cambios")
+    public void executeWritesCsvReportForSkippedArtifact() throws IOException {
+        File reportFile = new File(testFile.getParentFile(), "s3-upload-report.csv");
+        try {
+            s3Uploader.setOutputDirectory(testFile.getParent());
+            String[] filename = testFile.getName().split("\\.");
+            s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+            s3Uploader.setExtension(filename[filename.length - 1]);
+            s3Uploader.setAccessKey("accessKey");
+            s3Uploader.setSecretKey("secretKey");
+            s3Uploader.setRegion(Region.EU_WEST_3.id());
+            s3Uploader.setBucket("bucket");
+            s3Uploader.setPath("folder/");
+            s3Uploader.setSkipUnchanged(true);
+            s3Uploader.setReportFormat("csv");
+            Mockito.when(s3Client.headObject(Mockito.any(HeadObjectRequest.class)))
+                    .thenReturn(HeadObjectResponse.builder()
+                            .contentLength(testFile.length())
+                            .metadata(Collections.singletonMap("sha256", Checksums.toHex(Checksums.sha256(testFile))))
+                            .build());
+            Assertions.assertDoesNotThrow(s3Uploader::execute);
+            List<String> lines = Files.readAllLines(reportFile.toPath(), StandardCharsets.UTF_8);
+            Assertions.assertEquals(2, lines.size());
+            Assertions.assertTrue(lines.get(0).startsWith("artifact,bucket,key,status"));
+            Assertions.assertTrue(lines.get(1).startsWith("testfile.jar,bucket,folder/testfile.jar,SKIPPED_UNCHANGED,"));
+        } finally {
+            Files.deleteIfExists(reportFile.toPath());
+        }
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Sube el mismo artifact a varios destinos con una sola lectura")
+    public void executeUploadsToSeveralDestinations() throws IOException {
+        File reportFile = new File(testFile.getParentFile(), "s3-upload-report.json");
+        try {
+            s3Uploader.setOutputDirectory(testFile.getParent());
+            String[] filename = testFile.getName().split("\\.");
+            s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+            s3Uploader.setExtension(filename[filename.length - 1]);
+            s3Uploader.setAccessKey("accessKey");
+            s3Uploader.setSecretKey("secretKey");
+            s3Uploader.setRegion(Region.EU_WEST_3.id());
+            s3Uploader.setPath("folder/");
+            Destination replica = new Destination();
+            replica.setBucket("replica");
+            replica.setRegion(Region.US_EAST_1.id());
+            replica.setPath("mirror");
+            s3Uploader.setDestinations(new Destination[]{new Destination("primary", null, null, null), replica});
+            Map<String, String> bodies = new ConcurrentHashMap<>();
+            Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                    .thenAnswer(invocation -> {
+                        PutObjectRequest request = invocation.getArgument(0);
+                        RequestBody body = invocation.getArgument(1);
+                        try (InputStream in = body.contentStreamProvider().newStream()) {
+                            ByteArrayOutputStream content = new ByteArrayOutputStream();
+                            byte[] buffer = new byte[3];
+                            int n;
+                            while ((n = in.read(buffer)) != -1) {
+                                content.write(buffer, 0, n);
+                            }
+                            bodies.put(request.bucket() + "/" + request.key(),
+                                    new String(content.toByteArray(), StandardCharsets.UTF_8));
+                        }
+                        return PutObjectResponse.builder().build();
+                    });
+            Assertions.assertDoesNotThrow(s3Uploader::execute);
+            Assertions.assertEquals("content", bodies.get("primary/folder/testfile.jar"));
+            Assertions.assertEquals("content", bodies.get("replica/mirror/testfile.jar"));
+            Assertions.assertEquals(2, bodies.size());
+            String json = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+            Assertions.assertTrue(json.contains("\"bucket\": \"primary\""), json);
+            Assertions.assertTrue(json.contains("\"bucket\": \"replica\""), json);
+        } finally {
+            Files.deleteIfExists(reportFile.toPath());
+        }
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Envía permisos y metadatos en la propia petición PutObject")
+    public void executeSendsAttributesWithPutObject() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setCannonicalIds(new String[]{"id1"});
+        s3Uploader.setContentType("application/java-archive");
+        s3Uploader.setCacheControl("max-age=3600");
+        s3Uploader.setStorageClass("standard_ia");
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("team", "build tools");
+        tags.put("env", "prod&qa");
+        s3Uploader.setTags(tags);
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        PutObjectRequest request = requestCaptor.getValue();
+        Assertions.assertEquals("id=\"id1\"", request.grantRead());
+        Assertions.assertEquals("application/java-archive", request.contentType());
+        Assertions.assertEquals("max-age=3600", request.cacheControl());
+        Assertions.assertEquals(StorageClass.STANDARD_IA, request.storageClass());
+        Assertions.assertEquals("team=build%20tools&env=prod%26qa", request.tagging());
+        Mockito.verify(s3Client, Mockito.never()).putObjectAcl(Mockito.any(PutObjectAclRequest.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Envía permisos y metadatos al crear la subida multipart")
+    public void executeSendsAttributesWithCreateMultipartUpload() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setMultipartThreshold(1);
+        s3Uploader.setCannonicalIds(new String[]{"id1"});
+        s3Uploader.setStorageClass("GLACIER_IR");
+        ArgumentCaptor<CreateMultipartUploadRequest> createCaptor = ArgumentCaptor.forClass(CreateMultipartUploadRequest.class);
+        Mockito.when(s3Client.createMultipartUpload(createCaptor.capture()))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag-1").build());
+        Mockito.when(s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Assertions.assertEquals("id=\"id1\"", createCaptor.getValue().grantRead());
+        Assertions.assertEquals(StorageClass.GLACIER_IR, createCaptor.getValue().storageClass());
+        Mockito.verify(s3Client, Mockito.never()).putObjectAcl(Mockito.any(PutObjectAclRequest.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> En modo legacy aplica la ACL en una segunda petición")
+    public void executeAppliesAclSeparatelyInLegacyMode() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setCannonicalIds(new String[]{"id1"});
+        s3Uploader.setLegacyAcl(true);
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.when(s3Client.putObject(requestCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        ArgumentCaptor<PutObjectAclRequest> aclCaptor = ArgumentCaptor.forClass(PutObjectAclRequest.class);
+        Mockito.when(s3Client.putObjectAcl(aclCaptor.capture()))
+                .thenReturn(PutObjectAclResponse.builder().build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Assertions.assertNull(requestCaptor.getValue().grantRead());
+        Assertions.assertEquals("id=\"id1\"", aclCaptor.getValue().grantRead());
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Error cuando la clase de almacenamiento no es válida")
+    public void executeFailsWhenStorageClassInvalid() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setStorageClass("COLD");
+        Assertions.assertThrows(MojoExecutionException.class, () -> s3Uploader.execute());
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> El índice local evita la consulta remota en la siguiente compilación")
+    public void executeSkipsIndexedArtifactWithoutHeadTest(@TempDir Path indexDirectory) {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setSkipUnchanged(true);
+        s3Uploader.setUploadIndex(true);
+        s3Uploader.setUploadIndexDirectory(indexDirectory.toFile());
+        Mockito.when(s3Client.headObject(Mockito.any(HeadObjectRequest.class)))
+                .thenThrow(NoSuchKeyException.builder().message("Not found").build());
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().eTag("\"etag\"").build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Assertions.assertTrue(indexDirectory.resolve(UploadIndex.FILE_NAME).toFile().isFile());
+
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Mockito.verify(s3Client, Mockito.times(1)).headObject(Mockito.any(HeadObjectRequest.class));
+        Mockito.verify(s3Client, Mockito.times(1)).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> El índice local no calcula el hash si tamaño y fecha coinciden")
+    public void executeSkipsHashingIndexedArtifactTest(@TempDir Path indexDirectory) {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setUploadIndex(true);
+        s3Uploader.setUploadIndexDirectory(indexDirectory.toFile());
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().eTag("\"etag\"").build());
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+
+        Log log = Mockito.mock(Log.class);
+        s3Uploader.setLog(log);
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+        Mockito.verify(log, Mockito.never()).info(Mockito.startsWith("Hashed "));
+        Mockito.verify(s3Client, Mockito.times(1)).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> La subida por chunks solo envía los trozos que faltan y el manifiesto")
+    public void executeUploadsOnlyMissingChunksTest(@TempDir Path outputDirectory) throws IOException {
+        byte[] content = new byte[256 * 1024];
+        new Random(7).nextBytes(content);
+        File artifact = Files.write(outputDirectory.resolve("app.war"), content).toFile();
+        List<ContentDefinedChunker.Chunk> chunks = new ContentDefinedChunker(16 * 1024).chunk(artifact, 1);
+        s3Uploader.setOutputDirectory(outputDirectory.toString());
+        s3Uploader.setWarName("app");
+        s3Uploader.setExtension("war");
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setChunkedUpload(true);
+        s3Uploader.setChunkSize(16 * 1024);
+        Mockito.when(s3Client.listObjectsV2(Mockito.any(ListObjectsV2Request.class)))
+                .thenReturn(ListObjectsV2Response.builder()
+                        .contents(S3Object.builder().key("folder/chunks/" + chunks.get(0).sha256).build())
+                        .build());
+        Set<String> keys = ConcurrentHashMap.newKeySet();
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    keys.add(invocation.<PutObjectRequest>getArgument(0).key());
+                    return PutObjectResponse.builder().eTag("\"etag\"").build();
+                });
+
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+
+        Assertions.assertTrue(keys.contains("folder/app.war" + ChunkManifest.SUFFIX));
+        Assertions.assertFalse(keys.contains("folder/app.war"));
+        Assertions.assertFalse(keys.contains("folder/chunks/" + chunks.get(0).sha256));
+        Assertions.assertEquals(chunks.stream().skip(1).map(chunk -> chunk.sha256).distinct().count() + 1, keys.size());
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> La subida por chunks con skipUnchanged no calcula el hash del fichero completo")
+    public void executeChunkedSkipUnchangedDoesNotHashTest(@TempDir Path outputDirectory) throws IOException {
+        Files.write(outputDirectory.resolve("app.war"), new byte[64 * 1024]);
+        s3Uploader.setOutputDirectory(outputDirectory.toString());
+        s3Uploader.setWarName("app");
+        s3Uploader.setExtension("war");
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setChunkedUpload(true);
+        s3Uploader.setChunkSize(16 * 1024);
+        s3Uploader.setSkipUnchanged(true);
+        Log log = Mockito.mock(Log.class);
+        s3Uploader.setLog(log);
+        Mockito.when(s3Client.listObjectsV2(Mockito.any(ListObjectsV2Request.class)))
+                .thenReturn(ListObjectsV2Response.builder().build());
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().eTag("\"etag\"").build());
+
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+
+        Mockito.verify(log, Mockito.never()).info(Mockito.startsWith("Hashed "));
+        Mockito.verify(s3Client, Mockito.never()).headObject(Mockito.any(HeadObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> transferEngine fuerza un único PUT y guarda el throughput medido")
+    public void executeSingleEngineRecordsTransferStatsTest(@TempDir Path outputDirectory) throws IOException {
+        byte[] content = new byte[2 * 1024 * 1024];
+        Files.write(outputDirectory.resolve("app.war"), content);
+        File statsFile = outputDirectory.resolve("stats/" + TransferStats.FILE_NAME).toFile();
+        s3Uploader.setOutputDirectory(outputDirectory.toString());
+        s3Uploader.setWarName("app");
+        s3Uploader.setExtension("war");
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setMultipartThreshold(1);
+        s3Uploader.setTransferEngine("single");
+        s3Uploader.setTransferStatsFile(statsFile);
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    try (InputStream in = invocation.<RequestBody>getArgument(1).contentStreamProvider().newStream()) {
+                        while (in.read(new byte[8192]) != -1) {
+                            // consume the body like the HTTP client would
+                        }
+                    }
+                    return PutObjectResponse.builder().eTag("\"etag\"").build();
+                });
+
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+
+        Mockito.verify(s3Client, Mockito.never()).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+        Assertions.assertNotNull(TransferStats.open(statsFile).find("region." + Region.EU_WEST_3.id()));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Una subida reintentada no guarda throughput medido")
+    public void executeRetriedUploadSkipsTransferStatsTest(@TempDir Path outputDirectory) throws IOException {
+        Files.write(outputDirectory.resolve("app.war"), new byte[2 * 1024 * 1024]);
+        File statsFile = outputDirectory.resolve("stats/" + TransferStats.FILE_NAME).toFile();
+        s3Uploader.setOutputDirectory(outputDirectory.toString());
+        s3Uploader.setWarName("app");
+        s3Uploader.setExtension("war");
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setTransferEngine("single");
+        s3Uploader.setTransferStatsFile(statsFile);
+        s3Uploader.setRetryBaseDelayMillis(1);
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(500).message("Internal error").build())
+                .thenReturn(PutObjectResponse.builder().eTag("\"etag\"").build());
+
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+
+        Mockito.verify(s3Client, Mockito.times(2)).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+        Assertions.assertNull(TransferStats.open(statsFile).find("region." + Region.EU_WEST_3.id()));
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Con el motor automático reanuda la subida con el tamaño de parte del checkpoint")
+    public void executeResumesWithCheckpointPartSizeWhenTuned(@TempDir Path outputDirectory) throws IOException {
+        long mb = 1024 * 1024;
+        File artifact = Files.write(outputDirectory.resolve("app.war"), new byte[(int) (13 * mb)]).toFile();
+        File statsFile = outputDirectory.resolve(TransferStats.FILE_NAME).toFile();
+        Files.write(statsFile.toPath(), ("region." + Region.EU_WEST_3.id() + "=" + 3 * mb + ",0,0,1\n")
+                .getBytes(StandardCharsets.UTF_8));
+        File checkpointFile = outputDirectory.resolve("s3-upload-checkpoints/bucket_folder_app.war.properties").toFile();
+        UploadCheckpoint previous = new UploadCheckpoint(checkpointFile, "bucket", "folder/app.war", artifact,
+                MultipartUploader.MIN_PART_SIZE);
+        previous.setUploadId("upload-id");
+        previous.partCompleted(1, "etag-1");
+        previous.partCompleted(2, "etag-2");
+        s3Uploader.setOutputDirectory(outputDirectory.toString());
+        s3Uploader.setWarName("app");
+        s3Uploader.setExtension("war");
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setMultipartThreshold(1);
+        s3Uploader.setResumableUploads(true);
+        s3Uploader.setTransferStatsFile(statsFile);
+        Mockito.when(s3Client.listParts(Mockito.any(ListPartsRequest.class)))
+                .thenReturn(ListPartsResponse.builder()
+                        .parts(Part.builder().partNumber(1).eTag("etag-1").build(),
+                                Part.builder().partNumber(2).eTag("etag-2").build())
+                        .isTruncated(false)
+                        .build());
+        ArgumentCaptor<UploadPartRequest> partCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
+        Mockito.when(s3Client.uploadPart(partCaptor.capture(), Mockito.any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag-3").build());
+        Mockito.when(s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+
+        Assertions.assertDoesNotThrow(s3Uploader::execute);
+
+        Mockito.verify(s3Client, Mockito.never()).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+        Assertions.assertEquals(1, partCaptor.getAllValues().size());
+        Assertions.assertEquals(3, partCaptor.getValue().partNumber());
+        Assertions.assertEquals(13 * mb - 2 * MultipartUploader.MIN_PART_SIZE, partCaptor.getValue().contentLength());
+    }
+
+    @Test
+    @DisplayName("S3Uploader -> Rechaza las subidas reanudables con compresión")
+    public void executeRejectsResumableCompressedUploadsTest() {
+        s3Uploader.setOutputDirectory(testFile.getParent());
+        String[] filename = testFile.getName().split("\\.");
+        s3Uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+        s3Uploader.setExtension(filename[filename.length - 1]);
+        s3Uploader.setAccessKey("accessKey");
+        s3Uploader.setSecretKey("secretKey");
+        s3Uploader.setRegion(Region.EU_WEST_3.id());
+        s3Uploader.setBucket("bucket");
+        s3Uploader.setPath("folder/");
+        s3Uploader.setResumableUploads(true);
+        s3Uploader.setCompression("GZIP");
+        MojoExecutionException e = Assertions.assertThrows(MojoExecutionException.class, s3Uploader::execute);
+        Assertions.assertTrue(e.getMessage().contains("aws.s3.resumableUploads"));
+        Mockito.verifyNoInteractions(s3Client);
+    }
+
+    private MavenSession endSession() {
+        MavenSession session = reactorSession;
+        ExecutionEvent event = Mockito.mock(ExecutionEvent.class);
+        Mockito.when(event.getSession()).thenReturn(session);
+        session.getRequest().getExecutionListener().sessionEnded(event);
+        return session;
+    }
+
+    private S3Uploader configureReactor() {
+        MavenProject other = Mockito.mock(MavenProject.class);
+        Mockito.lenient().when(other.getId()).thenReturn("other");
+        Mockito.lenient().when(other.getName()).thenReturn("Other");
+        Mockito.when(project.getId()).thenReturn("fake");
+        MavenSession session = Mockito.mock(MavenSession.class);
+        reactorSession = session;
+        RepositorySystemSession repositorySession = Mockito.mock(RepositorySystemSession.class);
+        Mockito.when(repositorySession.getData()).thenReturn(new DefaultSessionData());
+        Mockito.when(session.getRepositorySession()).thenReturn(repositorySession);
+        Mockito.when(session.getProjects()).thenReturn(Arrays.asList(project, other));
+        Mockito.lenient().when(session.getResult()).thenReturn(new DefaultMavenExecutionResult());
+        Mockito.lenient().when(session.getRequest()).thenReturn(new DefaultMavenExecutionRequest());
+        PluginDescriptor plugin = new PluginDescriptor();
+        plugin.setGroupId("io.github.jcprieto");
+        plugin.setArtifactId("mvn-s3-upload");
+        S3Uploader second = new S3Uploader();
+        second.setProject(other);
+        for (S3Uploader uploader : Arrays.asList(s3Uploader, second)) {
+            uploader.setSession(session);
+            uploader.setPlugin(plugin);
+            uploader.setS3Client(s3Client);
+            uploader.setOutputDirectory(testFile.getParent());
+            String[] filename = testFile.getName().split("\\.");
+            uploader.setWarName(testFile.getName().replace("." + filename[filename.length - 1], ""));
+            uploader.setExtension(filename[filename.length - 1]);
+            uploader.setAccessKey("accessKey");
+            uploader.setSecretKey("secretKey");
+            uploader.setRegion(Region.EU_WEST_3.id());
+            uploader.setBucket("bucket");
+        }
+        s3Uploader.setPath("first/");
+        second.setPath("second/");
+        return second;
+    }
+
 }
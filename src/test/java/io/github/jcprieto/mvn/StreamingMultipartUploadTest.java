@@ -0,0 +1,119 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@ExtendWith(MockitoExtension.class)
+public class StreamingMultipartUploadTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    private static byte[] read(RequestBody body) throws IOException {
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[100];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private StreamingMultipartUpload upload(ByteBufferPool pool) {
+        PutObjectRequest request = PutObjectRequest.builder().bucket("bucket").key("folder/classes.tar").build();
+        return new StreamingMultipartUpload(s3Client, new SystemStreamLog(), request, pool, 2,
+                UploadRetryPolicy.noRetry(new SystemStreamLog()));
+    }
+
+    @Test
+    @DisplayName("StreamingMultipartUpload -> Sube un stream de longitud desconocida con un pool fijo de buffers")
+    public void streamsUnknownLengthIntoPartsTest() throws IOException {
+        byte[] content = new byte[10 * 1024 + 123];
+        new Random(3).nextBytes(content);
+        Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    UploadPartRequest request = invocation.getArgument(0);
+                    parts.put(request.partNumber(), read(invocation.getArgument(1)));
+                    return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+                });
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.when(s3Client.completeMultipartUpload(completeCaptor.capture()))
+                .thenReturn(CompleteMultipartUploadResponse.builder().eTag("\"final\"").build());
+        ByteBufferPool pool = new ByteBufferPool(3, 1024);
+
+        StreamingMultipartUpload upload = upload(pool);
+        upload.transfer(new ByteArrayInputStream(content));
+        upload.close();
+
+        Assertions.assertEquals(11, completeCaptor.getValue().multipartUpload().parts().size());
+        Assertions.assertEquals("\"final\"", upload.eTag());
+        Assertions.assertEquals(content.length, upload.bytes());
+        Assertions.assertTrue(pool.allocated() <= 3, String.valueOf(pool.allocated()));
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] part : new TreeMap<>(parts).values()) {
+            joined.write(part);
+        }
+        Assertions.assertArrayEquals(content, joined.toByteArray());
+    }
+
+    @Test
+    @DisplayName("StreamingMultipartUpload -> Usa un PutObject cuando el contenido cabe en una parte")
+    public void putsSmallContentInOneRequestTest() throws IOException {
+        Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+        Mockito.when(s3Client.putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    // The pooled buffer is recycled once the request returns, so the body is read inside the call
+                    bodies.put("body", read(invocation.getArgument(1)));
+                    return PutObjectResponse.builder().eTag("\"small\"").build();
+                });
+
+        StreamingMultipartUpload upload = upload(new ByteBufferPool(3, 1024));
+        upload.write("small".getBytes());
+        upload.close();
+
+        Assertions.assertEquals("small", new String(bodies.get("body")));
+        Assertions.assertEquals("\"small\"", upload.eTag());
+        Mockito.verify(s3Client, Mockito.never()).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    @DisplayName("StreamingMultipartUpload -> Aborta la subida cuando falla una parte")
+    public void abortsWhenPartFailsTest() throws IOException {
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).message("Denied").build());
+
+        StreamingMultipartUpload upload = upload(new ByteBufferPool(3, 1024));
+        upload.write(new byte[2048]);
+
+        Assertions.assertThrows(IOException.class, upload::close);
+        Mockito.verify(s3Client).abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+        Mockito.verify(s3Client, Mockito.never()).completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class));
+    }
+}
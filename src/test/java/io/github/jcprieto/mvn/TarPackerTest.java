@@ -0,0 +1,62 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TarPackerTest {
+
+    @TempDir
+    Path directory;
+
+    private static String field(byte[] tar, int offset, int length) {
+        String value = new String(tar, offset, length, StandardCharsets.UTF_8);
+        int end = value.indexOf('\0');
+        return end < 0 ? value : value.substring(0, end);
+    }
+
+    @Test
+    @DisplayName("TarPacker -> Empaqueta el directorio en formato ustar con cabeceras PAX para nombres largos")
+    public void packsDirectoryTest() throws IOException {
+        String longName = "pkg/" + String.join("", java.util.Collections.nCopies(30, "long")) + ".class";
+        Files.createDirectories(directory.resolve("pkg"));
+        Files.write(directory.resolve("pkg/A.class"), "class A".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve(longName), "long".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long files = TarPacker.pack(directory, out);
+
+        byte[] tar = out.toByteArray();
+        Assertions.assertEquals(2, files);
+        Assertions.assertEquals(0, tar.length % TarPacker.BLOCK_SIZE);
+        List<String> names = new ArrayList<>();
+        String paxPath = null;
+        int position = 0;
+        while (position < tar.length && tar[position] != 0) {
+            String name = field(tar, position, 100);
+            long size = Long.parseLong(field(tar, position + 124, 12).trim(), 8);
+            char type = (char) tar[position + 156];
+            Assertions.assertEquals("ustar", field(tar, position + 257, 6));
+            if (type == 'x') {
+                paxPath = new String(tar, position + TarPacker.BLOCK_SIZE, (int) size, StandardCharsets.UTF_8);
+            } else {
+                names.add(name);
+            }
+            position += TarPacker.BLOCK_SIZE + (int) ((size + TarPacker.BLOCK_SIZE - 1) / TarPacker.BLOCK_SIZE) * TarPacker.BLOCK_SIZE;
+        }
+        Assertions.assertEquals(Arrays.asList("pkg/", "pkg/A.class", longName.substring(0, 100)), names);
+        Assertions.assertNotNull(paxPath);
+        Assertions.assertTrue(paxPath.endsWith(" path=" + longName + "\n"), paxPath);
+        Assertions.assertEquals(paxPath.length(), Integer.parseInt(paxPath.substring(0, paxPath.indexOf(' '))));
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TransferPlannerTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private final TransferPlanner auto = new TransferPlanner(TransferPlanner.Engine.AUTO, 100 * MB, 16 * MB, 4, 16);
+
+    @Test
+    @DisplayName("TransferPlanner -> Sin mediciones usa el umbral y las partes configuradas")
+    public void usesConfigurationWithoutStatsTest() {
+        Assertions.assertFalse(auto.plan(10 * MB, null).multipart);
+        TransferPlanner.Plan large = auto.plan(200 * MB, null);
+        Assertions.assertTrue(large.multipart);
+        Assertions.assertEquals(16 * MB, large.partSize);
+        Assertions.assertEquals(4, large.concurrency);
+        Assertions.assertTrue(auto.plan(6L * 1024 * MB, null).multipart);
+    }
+
+    @Test
+    @DisplayName("TransferPlanner -> El override fuerza el motor salvo por encima del límite de un PUT")
+    public void overrideForcesEngineTest() {
+        TransferPlanner single = new TransferPlanner(TransferPlanner.Engine.SINGLE, 100 * MB, 16 * MB, 4, 16);
+        TransferPlanner multipart = new TransferPlanner(TransferPlanner.Engine.MULTIPART, 100 * MB, 16 * MB, 4, 16);
+        TransferStats.Sample fast = new TransferStats.Sample(100 * MB, 0, 0, 0);
+
+        Assertions.assertFalse(single.plan(500 * MB, fast).multipart);
+        Assertions.assertTrue(single.plan(6L * 1024 * MB, fast).multipart);
+        Assertions.assertTrue(multipart.plan(1024, fast).multipart);
+        Assertions.assertEquals(16 * MB, multipart.plan(1024, fast).partSize);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TransferPlanner.Engine.parse("FAST"));
+    }
+
+    @Test
+    @DisplayName("TransferPlanner -> Ajusta umbral, tamaño de parte y concurrencia al throughput medido")
+    public void tunesFromMeasuredThroughputTest() {
+        TransferStats.Sample slow = new TransferStats.Sample(5 * MB, 0, 0, 0);
+        Assertions.assertTrue(auto.plan(30 * MB, slow).multipart);
+
+        TransferStats.Sample fast = new TransferStats.Sample(50 * MB, 0, 0, 0);
+        Assertions.assertFalse(auto.plan(150 * MB, fast).multipart);
+        TransferPlanner.Plan firstMultipart = auto.plan(1024 * MB, fast);
+        Assertions.assertEquals(100 * MB, firstMultipart.partSize);
+        Assertions.assertEquals(4, firstMultipart.concurrency);
+
+        TransferStats.Sample scaling = new TransferStats.Sample(50 * MB, 190 * MB, 4, 0);
+        Assertions.assertEquals(8, auto.plan(1024 * MB, scaling).concurrency);
+
+        TransferStats.Sample saturated = new TransferStats.Sample(50 * MB, 120 * MB, 8, 0);
+        TransferPlanner.Plan limited = auto.plan(1024 * MB, saturated);
+        Assertions.assertEquals(3, limited.concurrency);
+        Assertions.assertTrue(limited.reason.contains("saturated"), limited.reason);
+    }
+}
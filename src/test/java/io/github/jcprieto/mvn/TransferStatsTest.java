@@ -0,0 +1,73 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public class TransferStatsTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("TransferStats -> Suaviza las mediciones y las persiste")
+    public void smoothsAndPersistsSamplesTest() throws IOException {
+        File file = directory.resolve("stats/" + TransferStats.FILE_NAME).toFile();
+        TransferStats stats = TransferStats.open(file);
+
+        stats.recordSingle("region.eu-west-3", 1024, 1_000_000);
+        Assertions.assertNull(stats.find("region.eu-west-3"));
+        stats.recordSingle("region.eu-west-3", 10 * MB, 1_000_000_000L);
+        stats.recordSingle("region.eu-west-3", 20 * MB, 1_000_000_000L);
+        Assertions.assertEquals(13 * MB, stats.find("region.eu-west-3").streamBytesPerSecond);
+        stats.recordMultipart("region.eu-west-3", 20 * MB, 400 * MB, 5_000_000_000L, 8);
+        stats.save();
+
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Assertions.assertTrue(content.contains("region.eu-west-3"), content);
+        TransferStats.Sample sample = stats.find("region.eu-west-3");
+        Assertions.assertEquals(80 * MB, sample.aggregateBytesPerSecond);
+        Assertions.assertEquals(8, sample.concurrency);
+    }
+
+    @Test
+    @DisplayName("TransferStats -> Ignora líneas corruptas del fichero")
+    public void ignoresMalformedEntriesTest() throws IOException {
+        File file = directory.resolve(TransferStats.FILE_NAME).toFile();
+        Files.write(file.toPath(), ("region.us-east-1=1048576,0,0,1\nregion.eu-west-1=broken\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        TransferStats stats = TransferStats.open(file);
+
+        Assertions.assertEquals(MB, stats.find("region.us-east-1").streamBytesPerSecond);
+        Assertions.assertNull(stats.find("region.eu-west-1"));
+    }
+
+    @Test
+    @DisplayName("TransferStats -> Escribe cada guardado en su propio temporal y no deja restos")
+    public void saveUsesUniqueTempFileTest() throws IOException {
+        File file = directory.resolve(TransferStats.FILE_NAME).toFile();
+        Files.write(directory.resolve(TransferStats.FILE_NAME + ".tmp"), "other build".getBytes(StandardCharsets.UTF_8));
+        TransferStats stats = TransferStats.open(file);
+
+        stats.recordSingle("region.eu-west-3", 10 * MB, 1_000_000_000L);
+        stats.save();
+
+        Assertions.assertEquals(10 * MB, TransferStats.open(file).find("region.eu-west-3").streamBytesPerSecond);
+        Assertions.assertArrayEquals("other build".getBytes(StandardCharsets.UTF_8),
+                Files.readAllBytes(directory.resolve(TransferStats.FILE_NAME + ".tmp")));
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(2, files.count());
+        }
+    }
+}
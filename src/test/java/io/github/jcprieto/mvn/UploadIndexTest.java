@@ -0,0 +1,87 @@
+package io.github.jcprieto.mvn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+public class UploadIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private File write(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    @Test
+    @DisplayName("UploadIndex -> Reconoce el fichero por tamaño y fecha o por su hash")
+    public void findsUnchangedFileTest() throws IOException {
+        File file = write("app.jar", "content");
+        byte[] sha256 = Checksums.sha256(file);
+        UploadIndex index = UploadIndex.open(directory.resolve("index-match").toFile());
+        String key = UploadIndex.key(null, "bucket", "folder/app.jar");
+        index.record(key, file, sha256, "\"etag\"");
+
+        Assertions.assertEquals("\"etag\"", index.find(key, file, null).eTag);
+        Assertions.assertTrue(file.setLastModified(file.lastModified() - 60_000));
+        Assertions.assertNull(index.find(key, file, null));
+        Assertions.assertNotNull(index.find(key, file, sha256));
+        Assertions.assertNull(index.find(UploadIndex.key("http://localhost:9000", "bucket", "folder/app.jar"), file, sha256));
+
+        Files.write(file.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertNull(index.find(key, file, Checksums.sha256(file)));
+    }
+
+    @Test
+    @DisplayName("UploadIndex -> Persiste y combina las entradas escritas por otras compilaciones")
+    public void mergesConcurrentWritersTest() throws IOException {
+        File first = write("first.jar", "first");
+        File second = write("second.jar", "second");
+        File indexDirectory = directory.resolve("index-merge").toFile();
+        UploadIndex index = UploadIndex.open(indexDirectory);
+        index.record("|bucket/first.jar", first, Checksums.sha256(first), null);
+        index.flush();
+
+        Files.write(new File(indexDirectory, UploadIndex.FILE_NAME).toPath(), ("|bucket/second.jar="
+                + second.length() + "," + second.lastModified() + "," + Checksums.toHex(Checksums.sha256(second))
+                + ",\"etag\"," + System.currentTimeMillis() + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        index.record("|bucket/first.jar", first, Checksums.sha256(first), "\"etag\"");
+        index.flush();
+
+        UploadIndex reopened = UploadIndex.open(indexDirectory);
+        Assertions.assertEquals(2, reopened.size());
+        Assertions.assertNotNull(reopened.find("|bucket/second.jar", second, null));
+        Assertions.assertEquals("\"etag\"", reopened.find("|bucket/first.jar", first, null).eTag);
+    }
+
+    @Test
+    @DisplayName("UploadIndex -> Descarta las entradas antiguas y limita el tamaño")
+    public void compactsOldEntriesTest() {
+        long now = System.currentTimeMillis();
+        Map<String, UploadIndex.Entry> entries = new HashMap<>();
+        entries.put("stale", new UploadIndex.Entry(1, 1, "", null, now - UploadIndex.MAX_AGE_MILLIS - 1));
+        for (int i = 0; i <= UploadIndex.MAX_ENTRIES; i++) {
+            entries.put("key" + i, new UploadIndex.Entry(1, 1, "", null, now - UploadIndex.MAX_ENTRIES + i));
+        }
+
+        UploadIndex.compact(entries, now);
+
+        Assertions.assertEquals(UploadIndex.MAX_ENTRIES, entries.size());
+        Assertions.assertFalse(entries.containsKey("stale"));
+        Assertions.assertFalse(entries.containsKey("key0"));
+        Assertions.assertTrue(entries.containsKey("key" + UploadIndex.MAX_ENTRIES));
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.jcprieto.mvn;
+
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositorySystemSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UploadSchedulerTest {
+
+    @Test
+    @DisplayName("UploadScheduler -> Limita las peticiones simultáneas de todos los módulos")
+    public void capsConcurrentRequestsTest() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String owner = "module-" + (i % 4);
+                futures.add(executor.submit(() -> scheduler.run(owner, () -> {
+                    peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return inFlight.decrementAndGet();
+                })));
+            }
+            for (Future<Integer> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(3, peak.get());
+        Assertions.assertEquals(0, scheduler.running());
+    }
+
+    @Test
+    @DisplayName("UploadScheduler -> Da el siguiente hueco al módulo que lleva más tiempo sin servir")
+    public void servesWaitingModulesFairlyTest() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            UploadScheduler.Slot first = scheduler.acquire("a", 1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (String owner : Arrays.asList("a", "a", "b")) {
+                int queued = scheduler.waiting() + 1;
+                futures.add(executor.submit(() -> scheduler.run(owner, () -> order.add(owner))));
+                while (scheduler.waiting() < queued) {
+                    Thread.sleep(1);
+                }
+            }
+            first.close();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(Arrays.asList("b", "a", "a"), order);
+    }
+
+    @Test
+    @DisplayName("UploadScheduler -> Cada sesión de Maven tiene su propio planificador")
+    public void forSessionKeepsOneSchedulerPerSessionTest() {
+        MavenSession first = session();
+        MavenSession second = session();
+
+        UploadScheduler scheduler = UploadScheduler.forSession(first, 2);
+
+        Assertions.assertSame(scheduler, UploadScheduler.forSession(first, 8));
+        Assertions.assertEquals(2, scheduler.maxConcurrent());
+        Assertions.assertNotSame(scheduler, UploadScheduler.forSession(second, 8));
+        Assertions.assertEquals(8, UploadScheduler.forSession(second, 2).maxConcurrent());
+    }
+
+    private static MavenSession session() {
+        RepositorySystemSession repositorySession = Mockito.mock(RepositorySystemSession.class);
+        Mockito.when(repositorySession.getData()).thenReturn(new DefaultSessionData());
+        MavenSession session = Mockito.mock(MavenSession.class);
+        Mockito.when(session.getRepositorySession()).thenReturn(repositorySession);
+        return session;
+    }
+}